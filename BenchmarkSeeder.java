@@ -0,0 +1,182 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Benchmark Seeder: tops the database up to a realistic size with batched inserts
+public class BenchmarkSeeder {
+    private static final String[] CATEGORIES = {"Appetizers", "Mains", "Desserts", "Beverages", "Sides"};
+    private static final String[] STATUSES = {"COMPLETED", "COMPLETED", "COMPLETED", "COMPLETED", "COMPLETED",
+            "COMPLETED", "COMPLETED", "CANCELLED", "PENDING", "PREPARING"};
+    private static final int COMMIT_EVERY = 2000;
+
+    private final Random random = new Random(42);
+
+    public void seed(int menuItems, int tables, int orders) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                seedMenu(conn, menuItems);
+                seedTables(conn, tables);
+                seedOrders(conn, orders);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        MenuCatalog.getInstance().invalidate();
+    }
+
+    // High-water marks of the tables the benchmark writes to, taken before a run
+    static final class Mark {
+        final int billId;
+        final int orderItemId;
+
+        Mark(int billId, int orderItemId) {
+            this.billId = billId;
+            this.orderItemId = orderItemId;
+        }
+    }
+
+    public Mark mark() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return new Mark(maxOf(conn, "id", "bills"), maxOf(conn, "id", "order_items"));
+        }
+    }
+
+    // Undoes every bill and order line written since the mark, so each run starts from the seeded data
+    public void resetTo(Mark mark) throws SQLException {
+        int billsRemoved;
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                PreparedStatement totals = conn.prepareStatement("""
+                        UPDATE orders o
+                        JOIN (SELECT order_id, SUM(price * quantity) AS added FROM order_items WHERE id > ? GROUP BY order_id) a
+                            ON a.order_id = o.id
+                        SET o.total_amount = o.total_amount - a.added""");
+                totals.setInt(1, mark.orderItemId);
+                totals.executeUpdate();
+
+                PreparedStatement items = conn.prepareStatement("DELETE FROM order_items WHERE id > ?");
+                items.setInt(1, mark.orderItemId);
+                items.executeUpdate();
+
+                PreparedStatement bills = conn.prepareStatement("DELETE FROM bills WHERE id > ?");
+                bills.setInt(1, mark.billId);
+                billsRemoved = bills.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        if (billsRemoved > 0) {
+            // Each removed bill had been added to the rollup as well
+            DailySalesAggregator.getInstance().rebuild();
+        }
+    }
+
+    private int count(Connection conn, String table) throws SQLException {
+        ResultSet rs = conn.prepareStatement("SELECT COUNT(*) FROM " + table).executeQuery();
+        return rs.next() ? rs.getInt(1) : 0;
+    }
+
+    private int maxOf(Connection conn, String column, String table) throws SQLException {
+        ResultSet rs = conn.prepareStatement("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table).executeQuery();
+        return rs.next() ? rs.getInt(1) : 0;
+    }
+
+    private void seedMenu(Connection conn, int target) throws SQLException {
+        int existing = count(conn, "menu_items");
+        PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO menu_items (name, category, price, description) VALUES (?, ?, ?, ?)");
+        for (int i = existing; i < target; i++) {
+            pstmt.setString(1, "Dish " + (i + 1));
+            pstmt.setString(2, CATEGORIES[i % CATEGORIES.length]);
+            pstmt.setBigDecimal(3, Money.ofCents(200 + random.nextInt(3800)).toBigDecimal());
+            pstmt.setString(4, "Benchmark item");
+            pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+        conn.commit();
+    }
+
+    private void seedTables(Connection conn, int target) throws SQLException {
+        int existing = count(conn, "tables");
+        int nextNumber = maxOf(conn, "table_number", "tables") + 1;
+        PreparedStatement pstmt = conn.prepareStatement("INSERT INTO tables (table_number, capacity) VALUES (?, ?)");
+        for (int i = existing; i < target; i++) {
+            pstmt.setInt(1, nextNumber++);
+            pstmt.setInt(2, 2 + 2 * random.nextInt(4));
+            pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+        conn.commit();
+    }
+
+    private void seedOrders(Connection conn, int target) throws SQLException {
+        int existing = count(conn, "orders");
+        if (existing >= target) {
+            return;
+        }
+
+        List<Integer> tableIds = new ArrayList<>();
+        ResultSet tableRs = conn.prepareStatement("SELECT id FROM tables").executeQuery();
+        while (tableRs.next()) {
+            tableIds.add(tableRs.getInt(1));
+        }
+        List<int[]> menu = new ArrayList<>();
+        ResultSet menuRs = conn.prepareStatement("SELECT id, price FROM menu_items").executeQuery();
+        while (menuRs.next()) {
+            menu.add(new int[] {menuRs.getInt(1), (int) Money.of(menuRs.getBigDecimal(2)).getCents()});
+        }
+
+        PreparedStatement orderStmt = conn.prepareStatement(
+                "INSERT INTO orders (id, table_id, customer_name, status, total_amount, order_time) VALUES (?, ?, ?, ?, ?, ?)");
+        PreparedStatement itemStmt = conn.prepareStatement(
+                "INSERT INTO order_items (order_id, menu_item_id, quantity, price) VALUES (?, ?, ?, ?)");
+        int nextId = maxOf(conn, "id", "orders") + 1;
+        long now = System.currentTimeMillis();
+        long year = TimeUnit.DAYS.toMillis(365);
+
+        for (int i = existing; i < target; i++) {
+            int orderId = nextId++;
+            long totalCents = 0;
+            int lines = 1 + random.nextInt(5);
+            for (int l = 0; l < lines; l++) {
+                int[] item = menu.get(random.nextInt(menu.size()));
+                int quantity = 1 + random.nextInt(3);
+                itemStmt.setInt(1, orderId);
+                itemStmt.setInt(2, item[0]);
+                itemStmt.setInt(3, quantity);
+                itemStmt.setBigDecimal(4, Money.ofCents(item[1]).toBigDecimal());
+                itemStmt.addBatch();
+                totalCents += (long) item[1] * quantity;
+            }
+            orderStmt.setInt(1, orderId);
+            orderStmt.setInt(2, tableIds.get(random.nextInt(tableIds.size())));
+            orderStmt.setString(3, "Guest " + orderId);
+            orderStmt.setString(4, STATUSES[random.nextInt(STATUSES.length)]);
+            orderStmt.setBigDecimal(5, Money.ofCents(totalCents).toBigDecimal());
+            orderStmt.setTimestamp(6, new Timestamp(now - (long) (random.nextDouble() * year)));
+            orderStmt.addBatch();
+
+            if ((i + 1) % COMMIT_EVERY == 0 || i + 1 == target) {
+                // Orders before their items so the foreign key is satisfied
+                orderStmt.executeBatch();
+                itemStmt.executeBatch();
+                conn.commit();
+                if ((i + 1) % 100_000 == 0 || i + 1 == target) {
+                    System.out.printf("Seeded %,d of %,d orders%n", i + 1, target);
+                }
+            }
+        }
+    }
+}
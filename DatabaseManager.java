@@ -7,880 +7,6010 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.DriverManager;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.management.ManagementFactory;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 // Database Connection Ma
 public class DatabaseManager {
-    private static final String URL = "jdbc:mysql://127.0.0.1:3306/restaurant_db";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "moluz@213";
+    // Overridable so benchmarks can run against another MySQL-compatible server, including an embedded one
+    private static final String URL = System.getProperty("restaurant.db.url", "jdbc:mysql://127.0.0.1:3306/restaurant_db");
+    private static final String USERNAME = System.getProperty("restaurant.db.user", "root");
+    private static final String PASSWORD = System.getProperty("restaurant.db.password", "moluz@213");
+    // Server-side prepares let the statement cache skip parsing and planning on reuse
+    // useCursorFetch makes setFetchSize stream rows instead of buffering the whole result
+    private static final String URL_OPTIONS = "useServerPrepStmts=true&useCursorFetch=true&rewriteBatchedStatements=true";
 
     static {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
+        if (URL.startsWith("jdbc:mysql:")) {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
+            }
         }
     }
 
+    // Connector/J options only apply to MySQL URLs that do not already carry their own
+    private static final ConnectionPool POOL = new ConnectionPool(
+            URL.startsWith("jdbc:mysql:") && !URL.contains("?") ? URL + "?" + URL_OPTIONS : URL, USERNAME, PASSWORD,
+            Integer.getInteger("restaurant.db.pool.minSize", 2),
+            Integer.getInteger("restaurant.db.pool.maxSize", 10),
+            Long.getLong("restaurant.db.pool.idleTimeoutMillis", 300_000L),
+            Long.getLong("restaurant.db.pool.borrowTimeoutMillis", 10_000L),
+            Long.getLong("restaurant.db.pool.leakThresholdMillis", 60_000L),
+            Boolean.getBoolean("restaurant.db.pool.traceLeaks"),
+            Boolean.parseBoolean(System.getProperty("restaurant.db.pool.validateOnBorrow", "true")),
+            Integer.getInteger("restaurant.db.pool.statementCacheSize", 64));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::close, "db-pool-shutdown"));
+    }
+
+    // Returns a pooled connection; closing it hands it back to the pool
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
-    }
-
-    public static void initializeDatabase() {
-        try (Connection conn = getConnection()) {
-            Statement stmt = conn.createStatement();
-
-            // Create users table
-            stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS users (
-                    id INT AUTO_INCREMENT PRIMARY KEY,
-                    username VARCHAR(50) UNIQUE NOT NULL,
-                    password VARCHAR(100) NOT NULL,
-                    role ENUM('ADMIN', 'STAFF') NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """);
-
-            // Create menu_items table
-            stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS menu_items (
-                    id INT AUTO_INCREMENT PRIMARY KEY,
-                    name VARCHAR(100) NOT NULL,
-                    category VARCHAR(50) NOT NULL,
-                    price DECIMAL(10,2) NOT NULL,
-                    available BOOLEAN DEFAULT TRUE,
-                    description TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """);
-
-            // Create tables table
-            stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS tables (
-                    id INT AUTO_INCREMENT PRIMARY KEY,
-                    table_number INT UNIQUE NOT NULL,
-                    capacity INT NOT NULL,
-                    status ENUM('AVAILABLE', 'OCCUPIED', 'RESERVED') DEFAULT 'AVAILABLE'
-                )
-            """);
-
-            // Create orders table
-            stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS orders (
-                    id INT AUTO_INCREMENT PRIMARY KEY,
-                    table_id INT,
-                    customer_name VARCHAR(100),
-                    status ENUM('PENDING', 'PREPARING', 'COMPLETED', 'CANCELLED') DEFAULT 'PENDING',
-                    total_amount DECIMAL(10,2) DEFAULT 0.00,
-                    order_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (table_id) REFERENCES tables(id)
-                )
-            """);
-
-            // Create order_items table
-            stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS order_items (
-                    id INT AUTO_INCREMENT PRIMARY KEY,
-                    order_id INT,
-                    menu_item_id INT,
-                    quantity INT NOT NULL,
-                    price DECIMAL(10,2) NOT NULL,
-                    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
-                    FOREIGN KEY (menu_item_id) REFERENCES menu_items(id)
-                )
-            """);
-
-            // Create bills table
-            stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS bills (
-                    id INT AUTO_INCREMENT PRIMARY KEY,
-                    order_id INT UNIQUE,
-                    subtotal DECIMAL(10,2) NOT NULL,
-                    tax DECIMAL(10,2) NOT NULL,
-                    total DECIMAL(10,2) NOT NULL,
-                    payment_status ENUM('PENDING', 'PAID') DEFAULT 'PENDING',
-                    bill_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (order_id) REFERENCES orders(id)
-                )
-            """);
+        return POOL.getConnection();
+    }
+
+    public static ConnectionPool getPool() {
+        return POOL;
+    }
+
+    public static void shutdown() {
+        POOL.close();
+    }
 
+    public static boolean initializeDatabase() {
+        try {
+            new SchemaMigrator().migrate();
             System.out.println("Database initialized successfully!");
+            return true;
 
         } catch (SQLException e) {
             System.err.println("Error initializing database: " + e.getMessage());
+            return false;
         }
     }
 }
 
-// User Model
-class User {
-    private int id;
-    private String username;
-    private String password;
-    private String role;
-    private LocalDateTime createdAt;
+// Schema Migrator: applies numbered, checksummed schema changes exactly once, recorded in schema_version.
+// Append new migrations to the list; never edit one that has shipped, its checksum is checked on every start.
+class SchemaMigrator {
+    interface Step {
+        String describe();
+        void apply(Connection conn) throws SQLException;
+    }
 
+    static final class Migration {
+        final int version;
+        final String description;
+        final List<Step> steps;
 
+        Migration(int version, String description, Step... steps) {
+            this.version = version;
+            this.description = description;
+            this.steps = List.of(steps);
+        }
 
-    // Getters and setters
-    public int getId() { return id; }
-    public String getUsername() { return username; }
-    public String getPassword() { return password; }
-    public String getRole() { return role; }
-    public LocalDateTime getCreatedAt(){ return createdAt; }
+        // Whitespace is ignored so re-indenting a migration does not change it
+        long checksum() {
+            java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+            for (Step step : steps) {
+                crc.update(step.describe().replaceAll("\\s+", " ").trim().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            }
+            return crc.getValue();
+        }
+    }
 
-    // Update constructor
-    public User(int id, String username, String password, String role, LocalDateTime createdAt) {
-        this.id = id;
-        this.username = username;
-        this.password = password;
-        this.role = role;
-        this.createdAt = createdAt;
+    static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Baseline tables",
+                    sql("""
+                    CREATE TABLE IF NOT EXISTS users (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        username VARCHAR(50) UNIQUE NOT NULL,
+                        password VARCHAR(100) NOT NULL,
+                        role ENUM('ADMIN', 'STAFF') NOT NULL,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """),
+                    sql("""
+                    CREATE TABLE IF NOT EXISTS menu_items (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        name VARCHAR(100) NOT NULL,
+                        category VARCHAR(50) NOT NULL,
+                        price DECIMAL(10,2) NOT NULL,
+                        available BOOLEAN DEFAULT TRUE,
+                        description TEXT,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """),
+                    sql("""
+                    CREATE TABLE IF NOT EXISTS tables (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        table_number INT UNIQUE NOT NULL,
+                        capacity INT NOT NULL,
+                        status ENUM('AVAILABLE', 'OCCUPIED', 'RESERVED') DEFAULT 'AVAILABLE'
+                    )
+                    """),
+                    sql("""
+                    CREATE TABLE IF NOT EXISTS orders (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        table_id INT,
+                        customer_name VARCHAR(100),
+                        status ENUM('PENDING', 'PREPARING', 'COMPLETED', 'CANCELLED') DEFAULT 'PENDING',
+                        total_amount DECIMAL(10,2) DEFAULT 0.00,
+                        order_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        FOREIGN KEY (table_id) REFERENCES tables(id)
+                    )
+                    """),
+                    sql("""
+                    CREATE TABLE IF NOT EXISTS order_items (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        order_id INT,
+                        menu_item_id INT,
+                        quantity INT NOT NULL,
+                        price DECIMAL(10,2) NOT NULL,
+                        FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
+                        FOREIGN KEY (menu_item_id) REFERENCES menu_items(id)
+                    )
+                    """),
+                    sql("""
+                    CREATE TABLE IF NOT EXISTS bills (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        order_id INT UNIQUE,
+                        subtotal DECIMAL(10,2) NOT NULL,
+                        tax DECIMAL(10,2) NOT NULL,
+                        total DECIMAL(10,2) NOT NULL,
+                        payment_status ENUM('PENDING', 'PAID') DEFAULT 'PENDING',
+                        bill_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        FOREIGN KEY (order_id) REFERENCES orders(id)
+                    )
+                    """)),
+            new Migration(2, "Hot-path indexes",
+                    index("orders", "idx_orders_time_id", "order_time, id"),
+                    index("orders", "idx_orders_status", "status"),
+                    index("menu_items", "idx_menu_items_category_name", "category, name"),
+                    index("tables", "idx_tables_status", "status"),
+                    index("bills", "idx_bills_payment_status", "payment_status")),
+            new Migration(3, "Daily sales rollup",
+                    sql("""
+                    CREATE TABLE IF NOT EXISTS daily_sales (
+                        business_date DATE NOT NULL,
+                        sale_hour TINYINT NOT NULL,
+                        bills INT NOT NULL DEFAULT 0,
+                        subtotal DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+                        tax DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+                        total DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+                        paid_bills INT NOT NULL DEFAULT 0,
+                        paid_total DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+                        PRIMARY KEY (business_date, sale_hour)
+                    )
+                    """)),
+            new Migration(4, "Tax label on bills",
+                    column("bills", "tax_label", "VARCHAR(50) NULL"))
+    );
+
+    // A hot statement, as the service runs it, with sample binds and the index the optimizer should pick
+    private static final class HotQuery {
+        final String index;
+        final String sql;
+        final Object[] binds;
+
+        HotQuery(String index, String sql, Object... binds) {
+            this.index = index;
+            this.sql = sql;
+            this.binds = binds;
+        }
+    }
+
+    // Below this many rows a scan beats any index, and the optimizer is right to choose one
+    private static final long SMALL_TABLE_ROWS = 1000;
+
+    private static List<HotQuery> hotQueries() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp tomorrow = Timestamp.valueOf(LocalDateTime.now().plusDays(1));
+        return List.of(
+                new HotQuery("idx_orders_time_id", OrderManagementService.ORDERS_PAGE_AFTER_SQL, now, now, Integer.MAX_VALUE, 51),
+                new HotQuery("idx_orders_status", EndOfDayCloseJob.COUNT_UNBILLED_SQL),
+                new HotQuery("idx_menu_items_category_name", MenuManagementService.ALL_MENU_ITEMS_SQL),
+                new HotQuery("idx_tables_status", TableManagementService.AVAILABLE_TABLES_SQL),
+                new HotQuery("idx_bills_payment_status", EndOfDayCloseJob.PENDING_BILLS_SQL, now, tomorrow));
     }
 
+    // Held while migrating so two terminals starting together do not both apply the same change
+    private static final String LOCK_NAME = "restaurant_schema_migration";
+
+    private static Step sql(String statement) {
+        return new Step() {
+            @Override
+            public String describe() {
+                return statement;
+            }
 
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                conn.createStatement().executeUpdate(statement);
+            }
+        };
     }
 
+    // MySQL has no ADD COLUMN IF NOT EXISTS either; a trailing nullable column is added without a table copy
+    private static Step column(String table, String name, String definition) {
+        return new Step() {
+            @Override
+            public String describe() {
+                return "COLUMN " + name + " ON " + table + " " + definition;
+            }
 
-// MenuItem Model
-class MenuItem {
-    private int id;
-    private String name;
-    private String category;
-    private BigDecimal price;
-    private boolean available;
-    private String description;
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                String existsSql = """
+                        SELECT COUNT(*) FROM information_schema.columns
+                        WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?""";
+                PreparedStatement exists = conn.prepareStatement(existsSql);
+                exists.setString(1, table);
+                exists.setString(2, name);
+                ResultSet rs = exists.executeQuery();
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return;
+                }
+                conn.createStatement().executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + name + " " + definition);
+            }
+        };
+    }
 
-    public MenuItem(int id, String name, String category, BigDecimal price, boolean available, String description) {
-        this.id = id;
-        this.name = name;
-        this.category = category;
-        this.price = price;
-        this.available = available;
-        this.description = description;
+    // MySQL has no CREATE INDEX IF NOT EXISTS, so look first; build online without blocking writes
+    private static Step index(String table, String name, String columns) {
+        return new Step() {
+            @Override
+            public String describe() {
+                return "INDEX " + name + " ON " + table + " (" + columns + ")";
+            }
+
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                String existsSql = """
+                        SELECT COUNT(*) FROM information_schema.statistics
+                        WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?""";
+                PreparedStatement exists = conn.prepareStatement(existsSql);
+                exists.setString(1, table);
+                exists.setString(2, name);
+                ResultSet rs = exists.executeQuery();
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return;
+                }
+                conn.createStatement().executeUpdate("ALTER TABLE " + table + " ADD INDEX " + name
+                        + " (" + columns + "), ALGORITHM=INPLACE, LOCK=NONE");
+            }
+        };
     }
 
-    // Getters and setters
-    public int getId() { return id; }
-    public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
-    public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
-    public BigDecimal getPrice() { return price; }
-    public void setPrice(BigDecimal price) { this.price = price; }
-    public boolean isAvailable() { return available; }
-    public void setAvailable(boolean available) { this.available = available; }
-    public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    // Returns the number of migrations applied
+    public int migrate() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            // Normal starts end here: one read, no lock, no DDL
+            if (isCurrent(conn)) {
+                return 0;
+            }
+            PreparedStatement lock = conn.prepareStatement("SELECT GET_LOCK(?, 60)");
+            lock.setString(1, LOCK_NAME);
+            ResultSet lockRs = lock.executeQuery();
+            if (!lockRs.next() || lockRs.getInt(1) != 1) {
+                throw new SQLException("Timed out waiting for another terminal to finish migrating the schema");
+            }
+            try {
+                conn.createStatement().executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(200) NOT NULL,
+                        checksum BIGINT NOT NULL,
+                        applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        execution_ms INT NOT NULL
+                    )
+                """);
+                Map<Integer, Long> applied = loadApplied(conn);
+
+                int count = 0;
+                for (Migration migration : MIGRATIONS) {
+                    Long checksum = applied.get(migration.version);
+                    if (checksum != null) {
+                        if (checksum != migration.checksum()) {
+                            throw new SQLException("Schema migration " + migration.version + " (" + migration.description
+                                    + ") has changed since it was applied");
+                        }
+                        continue;
+                    }
+                    apply(conn, migration);
+                    count++;
+                }
+                if (count > 0) {
+                    for (String problem : verifyHotQueries(conn)) {
+                        System.err.println("Warning: " + problem);
+                    }
+                }
+                return count;
+            } finally {
+                PreparedStatement release = conn.prepareStatement("SELECT RELEASE_LOCK(?)");
+                release.setString(1, LOCK_NAME);
+                release.executeQuery();
+            }
+        }
+    }
+
+    // True when every migration is recorded with its current checksum; anything else takes the locked path
+    private boolean isCurrent(Connection conn) {
+        Map<Integer, Long> applied;
+        try {
+            applied = loadApplied(conn);
+        } catch (SQLException e) {
+            // First run: schema_version does not exist yet
+            return false;
+        }
+        for (Migration migration : MIGRATIONS) {
+            Long checksum = applied.get(migration.version);
+            if (checksum == null || checksum != migration.checksum()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<Integer, Long> loadApplied(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        ResultSet rs = conn.prepareStatement("SELECT version, checksum FROM schema_version").executeQuery();
+        while (rs.next()) {
+            applied.put(rs.getInt("version"), rs.getLong("checksum"));
+        }
+        return applied;
+    }
+
+    // MySQL commits DDL implicitly, so every step is written to be safe to repeat if we die part way
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        for (Step step : migration.steps) {
+            step.apply(conn);
+        }
+        PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)");
+        pstmt.setInt(1, migration.version);
+        pstmt.setString(2, migration.description);
+        pstmt.setLong(3, migration.checksum());
+        pstmt.setInt(4, (int) ((System.nanoTime() - start) / 1_000_000));
+        pstmt.executeUpdate();
+        System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+    }
+
+    // EXPLAINs each hot query and reports any whose index the optimizer cannot use
+    public List<String> verifyHotQueries(Connection conn) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        for (HotQuery hot : hotQueries()) {
+            PreparedStatement explain = conn.prepareStatement("EXPLAIN " + hot.sql);
+            for (int i = 0; i < hot.binds.length; i++) {
+                explain.setObject(i + 1, hot.binds[i]);
+            }
+            ResultSet rs = explain.executeQuery();
+            boolean used = false;
+            long rows = 0;
+            while (rs.next()) {
+                // key is the index the optimizer actually chose; possible_keys only says it could have
+                String chosen = rs.getString("key");
+                used |= chosen != null && Arrays.asList(chosen.split(",")).contains(hot.index);
+                rows = Math.max(rows, rs.getLong("rows"));
+            }
+            if (!used && rows >= SMALL_TABLE_ROWS) {
+                problems.add("index " + hot.index + " is not used by: " + hot.sql.replaceAll("\\s+", " ").trim());
+            }
+        }
+        return problems;
+    }
+
+    public int getCurrentVersion() throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            ResultSet rs = conn.prepareStatement("SELECT COALESCE(MAX(version), 0) FROM schema_version").executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+}
+
+// Connection Pool
+class ConnectionPool {
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final Properties connectionProperties = new Properties();
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+    // Capturing the borrow site costs a stack walk per borrow, so it is only done when asked for
+    private final boolean traceLeaks;
+    private final boolean validateOnBorrow;
+    private final int statementCacheSize;
+
+    // Idle connections are reused LIFO so the warmest sockets are handed out first
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong validationFailureCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis, long leakThresholdMillis,
+                          boolean traceLeaks, boolean validateOnBorrow, int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.connectionProperties.setProperty("user", username);
+        this.connectionProperties.setProperty("password", password);
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.traceLeaks = traceLeaks;
+        this.validateOnBorrow = validateOnBorrow;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1_000L, Math.min(30_000L, idleTimeoutMillis / 2));
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire();
+        if (!acquired) {
+            waitCount.incrementAndGet();
+            try {
+                acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+        }
+        long waited = System.nanoTime() - start;
+        recordWait(waited);
+
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLException("Timed out after " + borrowTimeoutMillis
+                    + " ms waiting for a database connection (" + maxSize + " in use)");
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = traceLeaks && leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            // Queueing plus validation or connect, reported with the borrow's first statement
+            pooled.lastWaitNanos = System.nanoTime() - start;
+            borrowed.add(pooled);
+            borrowCount.incrementAndGet();
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            validationFailureCount.incrementAndGet();
+            destroy(pooled);
+        }
+        return create();
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            // Skip the round trip for connections that were in use a moment ago
+            if (!validateOnBorrow || System.currentTimeMillis() - pooled.lastUsed < VALIDATION_BYPASS_MILLIS) {
+                return true;
+            }
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        createdCount.incrementAndGet();
+        return new PooledConnection(this, physical);
+    }
+
+    private void destroy(PooledConnection pooled) {
+        destroyedCount.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        try {
+            pooled.endBorrow();
+            if (pooled.broken || closed) {
+                destroy(pooled);
+                return;
+            }
+            // Never hand the next borrower a half-finished transaction
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            pooled.borrowSite = null;
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void houseKeep() {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        // Evict connections idle past the timeout, oldest first, down to the minimum size
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && getTotalCount() > minSize) {
+            PooledConnection pooled = it.next();
+            if (now - pooled.lastUsed > idleTimeoutMillis && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+
+        try {
+            while (!closed && getTotalCount() < minSize) {
+                idle.offerLast(create());
+            }
+        } catch (SQLException e) {
+            System.err.println("Error filling connection pool: " + e.getMessage());
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pooled : borrowed) {
+                Throwable site = pooled.borrowSite;
+                if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                    pooled.leakReported = true;
+                    leakCount.incrementAndGet();
+                    System.err.println("Possible connection leak: connection held for "
+                            + (now - pooled.borrowedAt) + " ms");
+                    if (site != null) {
+                        site.printStackTrace();
+                    } else {
+                        System.err.println("Run with -Drestaurant.db.pool.traceLeaks=true to see where it was borrowed");
+                    }
+                }
+            }
+        }
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    // Metrics
+    public int getMinSize() { return minSize; }
+    public int getMaxSize() { return maxSize; }
+    public int getActiveCount() { return borrowed.size(); }
+    public int getIdleCount() { return idle.size(); }
+    public int getTotalCount() { return idle.size() + borrowed.size(); }
+    public int getPendingCount() { return permits.getQueueLength(); }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getWaitCount() { return waitCount.get(); }
+    public long getTimeoutCount() { return timeoutCount.get(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getDestroyedCount() { return destroyedCount.get(); }
+    public long getValidationFailureCount() { return validationFailureCount.get(); }
+    public long getLeakCount() { return leakCount.get(); }
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get() + timeoutCount.get();
+        return borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+    public double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public long getStatementCacheHits() { return statementCacheHits.get(); }
+    public long getStatementCacheMisses() { return statementCacheMisses.get(); }
+    public long getStatementCacheEvictions() { return statementCacheEvictions.get(); }
+    public double getStatementCacheHitRatio() {
+        long hits = statementCacheHits.get();
+        long total = hits + statementCacheMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
 
     @Override
     public String toString() {
-        return String.format("ID: %d | %s | %s | $%.2f | %s",
-                id, name, category, price, available ? "Available" : "Unavailable");
+        return String.format("Pool[active=%d, idle=%d, pending=%d, max=%d, borrows=%d, waits=%d, timeouts=%d, avgWait=%.2fms, maxWait=%.2fms, leaks=%d, stmtHits=%d, stmtMisses=%d]",
+                getActiveCount(), getIdleCount(), getPendingCount(), maxSize, getBorrowCount(), getWaitCount(),
+                getTimeoutCount(), getAverageWaitMillis(), getMaxWaitMillis(), getLeakCount(),
+                getStatementCacheHits(), getStatementCacheMisses());
     }
-}
 
-// Table Model
-class RestaurantTable {
-    private int id;
-    private int tableNumber;
-    private int capacity;
-    private String status;
+    // A physical connection owned by the pool
+    static final class PooledConnection {
+        final ConnectionPool pool;
+        final Connection physical;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile long lastWaitNanos;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        volatile boolean broken;
+
+        // Prepared statements keyed by SQL text, least recently used first
+        private final LinkedHashMap<String, CachedStatement> statementCache;
+        private final List<CachedStatement> checkedOut = new ArrayList<>();
+        // Statements outside the cache; closed when the connection goes back to the pool
+        private final List<Statement> uncached = new ArrayList<>();
+        private final List<StatementHandle> uncachedHandles = new ArrayList<>();
+        private Connection handle;
+
+        PooledConnection(ConnectionPool pool, Connection physical) {
+            this.pool = pool;
+            this.physical = physical;
+            this.statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= pool.statementCacheSize) {
+                        return false;
+                    }
+                    CachedStatement victim = eldest.getValue();
+                    victim.evicted = true;
+                    if (!victim.inUse) {
+                        closeQuietly(victim.physical);
+                    }
+                    pool.statementCacheEvictions.incrementAndGet();
+                    return true;
+                }
+            };
+        }
+
+        // Each borrow gets its own handle so a stale reference cannot touch the next borrower's work
+        Connection newHandle() {
+            handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new ConnectionHandle(this));
+            return handle;
+        }
+
+        PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? sql + "\u0000keys" : sql;
+            CachedStatement cached = pool.statementCacheSize > 0 ? statementCache.get(key) : null;
+            if (cached != null && !cached.inUse) {
+                pool.statementCacheHits.incrementAndGet();
+                return checkOut(cached);
+            }
+            pool.statementCacheMisses.incrementAndGet();
+
+            PreparedStatement statement = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS
+                    ? physical.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : physical.prepareStatement(sql);
+            // The same SQL is still open on this borrow, or caching is off: hand out a one-off statement
+            if (cached != null || pool.statementCacheSize == 0) {
+                return trackPrepared(statement, sql);
+            }
+            cached = new CachedStatement(this, statement, sql);
+            statementCache.put(key, cached);
+            return checkOut(cached);
+        }
+
+        Statement track(Statement statement) {
+            uncached.add(statement);
+            return statement;
+        }
+
+        // One-off prepared statements still go through a handle so their executions are timed
+        PreparedStatement trackPrepared(PreparedStatement statement, String sql) {
+            uncached.add(statement);
+            StatementHandle handle = new StatementHandle(this, statement, null, sql);
+            uncachedHandles.add(handle);
+            return handle.proxy();
+        }
+
+        private PreparedStatement checkOut(CachedStatement cached) {
+            cached.inUse = true;
+            checkedOut.add(cached);
+            cached.handle = new StatementHandle(this, cached.physical, cached, cached.sql);
+            return cached.handle.proxy();
+        }
+
+        void checkIn(CachedStatement cached) {
+            checkedOut.remove(cached);
+            reset(cached);
+        }
+
+        private void reset(CachedStatement cached) {
+            cached.handle.finishExecution();
+            cached.handle.closed = true;
+            cached.inUse = false;
+            if (cached.evicted) {
+                closeQuietly(cached.physical);
+                return;
+            }
+            try {
+                cached.physical.clearParameters();
+            } catch (SQLException e) {
+                cached.evicted = true;
+                statementCache.values().remove(cached);
+                closeQuietly(cached.physical);
+            }
+        }
+
+        // Callers rarely close their statements, so everything they opened is reclaimed here
+        void endBorrow() {
+            for (CachedStatement cached : checkedOut) {
+                reset(cached);
+            }
+            checkedOut.clear();
+            for (StatementHandle handle : uncachedHandles) {
+                handle.finishExecution();
+                handle.closed = true;
+            }
+            uncachedHandles.clear();
+            for (Statement statement : uncached) {
+                closeQuietly(statement);
+            }
+            uncached.clear();
+        }
+
+        private static void closeQuietly(Statement statement) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // Statement is being discarded anyway
+            }
+        }
+    }
+
+    static final class CachedStatement {
+        final PooledConnection owner;
+        final PreparedStatement physical;
+        final String sql;
+        boolean inUse;
+        boolean evicted;
+        StatementHandle handle;
+
+        CachedStatement(PooledConnection owner, PreparedStatement physical, String sql) {
+            this.owner = owner;
+            this.physical = physical;
+            this.sql = sql;
+        }
+    }
+
+    // Statement handed to callers. Records bind values and times executions for the slow SQL log;
+    // close() returns cached statements to the connection's cache and closes one-off ones.
+    static final class StatementHandle implements InvocationHandler {
+        private final PooledConnection owner;
+        private final PreparedStatement target;
+        private final CachedStatement cached;
+        private final String sql;
+        private Object[] binds = new Object[8];
+        private int bindCount;
+        private int batchCount;
+        private SlowSqlLog.Execution running;
+        boolean closed;
+
+        StatementHandle(PooledConnection owner, PreparedStatement target, CachedStatement cached, String sql) {
+            this.owner = owner;
+            this.target = target;
+            this.cached = cached;
+            this.sql = sql;
+        }
+
+        PreparedStatement proxy() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        // A query is complete once its rows are read, or when the statement moves on
+        void finishExecution() {
+            if (running != null) {
+                running.finish();
+                running = null;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        finishExecution();
+                        if (cached != null) {
+                            owner.checkIn(cached);
+                        } else {
+                            closed = true;
+                            target.close();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return (cached != null ? "CachedStatement[" : "Statement[") + target + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            if (name.equals("getConnection")) {
+                return owner.handle;
+            }
+            if (name.startsWith("execute") && SlowSqlLog.getInstance().isEnabled()) {
+                return execute(method, args);
+            }
+            if (args != null && args.length >= 2 && args[0] instanceof Integer && name.startsWith("set")) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(binds, 0, bindCount, null);
+                bindCount = 0;
+            } else if (name.equals("addBatch")) {
+                batchCount++;
+            } else if (name.equals("clearBatch")) {
+                batchCount = 0;
+            }
+            return invokeTarget(method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1 || index > 10_000) {
+                return;
+            }
+            if (index > binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishExecution();
+            String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            SlowSqlLog.Execution execution = new SlowSqlLog.Execution(text, binds, bindCount, batchCount,
+                    ServiceMetrics.current(), owner.lastWaitNanos);
+            owner.lastWaitNanos = 0;
+            batchCount = 0;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(method, args);
+            } catch (Throwable t) {
+                execution.elapsedNanos = System.nanoTime() - start;
+                execution.failed = true;
+                execution.finish();
+                throw t;
+            }
+            execution.elapsedNanos = System.nanoTime() - start;
+
+            if (result instanceof ResultSet rs) {
+                // Fetch time counts too: with cursor fetch most of a large query's cost is in next()
+                running = execution;
+                return ResultSetHandle.wrap(rs, execution);
+            }
+            if (result instanceof int[] counts) {
+                execution.rows = Arrays.stream(counts).filter(c -> c > 0).asLongStream().sum();
+            } else if (result instanceof Number count) {
+                execution.rows = count.longValue();
+            }
+            execution.finish();
+            return result;
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && ConnectionHandle.isFatal(sqlException)) {
+                    owner.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+
+    // Result set handed to callers while the slow SQL log is on; counts rows and time spent fetching them
+    static final class ResultSetHandle implements InvocationHandler {
+        private final ResultSet target;
+        private final SlowSqlLog.Execution execution;
+
+        private ResultSetHandle(ResultSet target, SlowSqlLog.Execution execution) {
+            this.target = target;
+            this.execution = execution;
+        }
+
+        static ResultSet wrap(ResultSet target, SlowSqlLog.Execution execution) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new ResultSetHandle(target, execution));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                long start = System.nanoTime();
+                boolean more = target.next();
+                execution.elapsedNanos += System.nanoTime() - start;
+                if (more) {
+                    execution.rows++;
+                } else {
+                    execution.finish();
+                }
+                return more;
+            }
+            if (name.equals("close")) {
+                execution.finish();
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Logical connection handed to callers; close() returns the physical connection to the pool
+    static final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pooled.pool.release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                if (method.getName().equals("prepareStatement")) {
+                    Class<?>[] types = method.getParameterTypes();
+                    if (types.length == 1) {
+                        return pooled.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (types.length == 2 && types[1] == int.class) {
+                        return pooled.prepare((String) args[0], (Integer) args[1]);
+                    }
+                    return pooled.trackPrepared((PreparedStatement) method.invoke(pooled.physical, args), (String) args[0]);
+                }
+                Object result = method.invoke(pooled.physical, args);
+                return result instanceof Statement statement ? pooled.track(statement) : result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isFatal(sqlException)) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        static boolean isFatal(SQLException e) {
+            String state = e.getSQLState();
+            return state != null && state.startsWith("08");
+        }
+    }
+}
+
+// Slow SQL Log: prepared statements slower than a threshold, written to a rotating file and kept
+// as an in-memory list of the slowest. Each entry has the SQL, bind values, rows, the calling
+// service operation and how long the caller waited for its connection.
+class SlowSqlLog {
+    private static final SlowSqlLog INSTANCE = new SlowSqlLog(
+            Long.getLong("restaurant.sql.slowMillis", 200),
+            System.getProperty("restaurant.sql.slowLog", "slow-sql.log"),
+            Long.getLong("restaurant.sql.slowLogMaxBytes", 10L * 1024 * 1024),
+            Integer.getInteger("restaurant.sql.slowLogBackups", 5),
+            Integer.getInteger("restaurant.sql.slowTopN", 50));
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    // One timed statement execution
+    static final class Execution {
+        final long startedAtMillis = System.currentTimeMillis();
+        final String sql;
+        final Object[] binds;
+        final int batchSize;
+        final String operation;
+        final long connectionWaitNanos;
+        long elapsedNanos;
+        long rows;
+        boolean failed;
+        private boolean finished;
+
+        Execution(String sql, Object[] binds, int bindCount, int batchSize, OperationStats operation, long connectionWaitNanos) {
+            this.sql = sql;
+            this.binds = Arrays.copyOf(binds, bindCount);
+            this.batchSize = batchSize;
+            this.operation = operation != null ? operation.getName() : "-";
+            this.connectionWaitNanos = connectionWaitNanos;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                INSTANCE.record(this);
+            }
+        }
+
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("%s | %.1f ms | wait %.1f ms | rows %d%s | %s | %s | binds %s",
+                    LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(startedAtMillis), java.time.ZoneId.systemDefault())
+                            .format(TIME_FORMAT),
+                    elapsedNanos / 1e6, connectionWaitNanos / 1e6, rows,
+                    failed ? " FAILED" : batchSize > 0 ? " batch " + batchSize : "",
+                    operation, sql.replaceAll("\\s+", " ").trim(), formatBinds());
+        }
+
+        private String formatBinds() {
+            // Never write credentials to disk
+            if (sql.toLowerCase().contains("password")) {
+                return "[masked]";
+            }
+            StringBuilder text = new StringBuilder("[");
+            for (int i = 0; i < binds.length; i++) {
+                if (i > 0) {
+                    text.append(", ");
+                }
+                Object value = binds[i];
+                if (value instanceof String string) {
+                    text.append('\'').append(string.length() > 100 ? string.substring(0, 100) + "..." : string).append('\'');
+                } else {
+                    text.append(value);
+                }
+            }
+            return text.append(']').toString();
+        }
+    }
+
+    private volatile long thresholdNanos;
+    private final java.io.File file;
+    private final long maxBytes;
+    private final int backups;
+    private final int topN;
+    private final PriorityQueue<Execution> slowest = new PriorityQueue<>(Comparator.comparingLong(Execution::getElapsedNanos));
+    private java.io.Writer writer;
+    private final AtomicLong loggedCount = new AtomicLong();
+
+    public static SlowSqlLog getInstance() {
+        return INSTANCE;
+    }
+
+    SlowSqlLog(long thresholdMillis, String path, long maxBytes, int backups, int topN) {
+        setThresholdMillis(thresholdMillis);
+        this.file = new java.io.File(path);
+        this.maxBytes = maxBytes;
+        this.backups = backups;
+        this.topN = topN;
+    }
+
+    // A negative threshold turns timing off altogether
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    public boolean isEnabled() {
+        return thresholdNanos >= 0;
+    }
+
+    public long getLoggedCount() {
+        return loggedCount.get();
+    }
+
+    void record(Execution execution) {
+        long threshold = thresholdNanos;
+        if (threshold < 0 || execution.elapsedNanos < threshold) {
+            return;
+        }
+        synchronized (slowest) {
+            if (slowest.size() < topN) {
+                slowest.add(execution);
+            } else if (topN > 0 && execution.elapsedNanos > slowest.peek().elapsedNanos) {
+                slowest.poll();
+                slowest.add(execution);
+            }
+        }
+        loggedCount.incrementAndGet();
+        write(execution.toString());
+    }
+
+    // Slowest first
+    public List<Execution> getSlowest() {
+        List<Execution> entries;
+        synchronized (slowest) {
+            entries = new ArrayList<>(slowest);
+        }
+        entries.sort(Comparator.comparingLong(Execution::getElapsedNanos).reversed());
+        return entries;
+    }
+
+    public void clear() {
+        synchronized (slowest) {
+            slowest.clear();
+        }
+    }
+
+    private synchronized void write(String line) {
+        try {
+            if (writer == null) {
+                writer = new java.io.BufferedWriter(new java.io.FileWriter(file, true));
+            }
+            writer.write(line);
+            writer.write(System.lineSeparator());
+            writer.flush();
+            if (file.length() > maxBytes) {
+                rotate();
+            }
+        } catch (java.io.IOException e) {
+            System.err.println("Error writing slow SQL log: " + e.getMessage());
+        }
+    }
+
+    // slow-sql.log -> slow-sql.log.1 -> ... -> slow-sql.log.<backups>, oldest dropped
+    private void rotate() throws java.io.IOException {
+        writer.close();
+        writer = null;
+        for (int i = backups - 1; i >= 1; i--) {
+            java.io.File older = new java.io.File(file.getPath() + "." + i);
+            if (older.exists()) {
+                java.nio.file.Files.move(older.toPath(), new java.io.File(file.getPath() + "." + (i + 1)).toPath(),
+                        java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (backups > 0) {
+            java.nio.file.Files.move(file.toPath(), new java.io.File(file.getPath() + ".1").toPath(),
+                    java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            java.nio.file.Files.delete(file.toPath());
+        }
+    }
+}
+
+// Money: an exact amount in whole cents, the same range and rounding as a DECIMAL(10,2) column.
+// Arithmetic stays in long; BigDecimal only appears when reading or binding JDBC values.
+final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    // Largest magnitude DECIMAL(10,2) can hold: 99,999,999.99
+    static final long MAX_CENTS = 9_999_999_999L;
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    // Values with more than two decimals are rounded half up, as MySQL does on insert
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return ofCents(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    public long getCents() { return cents; }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(-cents);
+    }
+
+    public Money times(int quantity) {
+        return ofCents(multiplyCents(quantity));
+    }
+
+    // For running totals kept in a plain long
+    public long multiplyCents(int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    // e.g. 800 basis points is 8%; the result is rounded half up to the cent
+    public Money applyBasisPoints(long basisPoints) {
+        return ofCents(scaleHalfUp(cents, basisPoints, 10_000));
+    }
+
+    static long scaleHalfUp(long value, long numerator, long denominator) {
+        long product = Math.multiplyExact(value, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        if (Math.abs(remainder) * 2 >= denominator) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    public boolean isZero() { return cents == 0; }
+    public boolean isNegative() { return cents < 0; }
+
+    // JDBC boundary only
+    public BigDecimal toBigDecimal() {
+        if (Math.abs(cents) > MAX_CENTS) {
+            throw new ArithmeticException("Amount " + this + " does not fit DECIMAL(10,2)");
+        }
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    // Plain "1234.50" so it pads with %8s and displays directly in tables
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        StringBuilder text = new StringBuilder(16);
+        if (cents < 0) {
+            text.append('-');
+        }
+        text.append(abs / 100).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+}
+
+// String Dictionary: maps the few distinct values of a column (statuses, categories) to dense int codes,
+// so the column itself can be stored as an int[]
+final class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    public String valueOf(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
+
+// User Model
+class User {
+    private int id;
+    private String username;
+    private String password;
+    private String role;
+    private LocalDateTime createdAt;
+
+
+
+    // Getters and setters
+    public int getId() { return id; }
+    public String getUsername() { return username; }
+    public String getPassword() { return password; }
+    public String getRole() { return role; }
+    public LocalDateTime getCreatedAt(){ return createdAt; }
+
+    // Update constructor
+    public User(int id, String username, String password, String role, LocalDateTime createdAt) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        this.createdAt = createdAt;
+    }
+
+
+    }
+
+
+// MenuItem Model
+class MenuItem {
+    private int id;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private boolean available;
+    private String description;
+
+    public MenuItem(int id, String name, String category, BigDecimal price, boolean available, String description) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.price = price;
+        this.available = available;
+        this.description = description;
+    }
+
+    // Getters and setters
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d | %s | %s | $%.2f | %s",
+                id, name, category, price, available ? "Available" : "Unavailable");
+    }
+}
+
+// Table Model
+class RestaurantTable {
+    private int id;
+    private int tableNumber;
+    private int capacity;
+    private String status;
+
+    public RestaurantTable(int id, int tableNumber, int capacity, String status) {
+        this.id = id;
+        this.tableNumber = tableNumber;
+        this.capacity = capacity;
+        this.status = status;
+    }
+
+    // Getters and setters
+    public int getId() { return id; }
+    public int getTableNumber() { return tableNumber; }
+    public int getCapacity() { return capacity; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    @Override
+    public String toString() {
+        return String.format("Table %d (Capacity: %d) - %s", tableNumber, capacity, status);
+    }
+}
+
+// Order Model
+class Order {
+    private int id;
+    private int tableId;
+    private String customerName;
+    private String status;
+    private Money totalAmount;
+    private LocalDateTime orderTime;
+    private List<OrderItem> items;
+
+    public Order(int id, int tableId, String customerName, String status, Money totalAmount, LocalDateTime orderTime) {
+        this.id = id;
+        this.tableId = tableId;
+        this.customerName = customerName;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.orderTime = orderTime;
+        this.items = new ArrayList<>();
+    }
+
+    // Getters and setters
+    public int getId() { return id; }
+    public int getTableId() { return tableId; }
+    public String getCustomerName() { return customerName; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Money getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Money totalAmount) { this.totalAmount = totalAmount; }
+    public LocalDateTime getOrderTime() { return orderTime; }
+    public List<OrderItem> getItems() { return items; }
+    public void setItems(List<OrderItem> items) { this.items = items; }
+}
+
+// Order Page
+class OrderPage {
+    private final List<Order> orders;
+    private final boolean hasMore;
+
+    public OrderPage(List<Order> orders, boolean hasMore) {
+        this.orders = orders;
+        this.hasMore = hasMore;
+    }
+
+    public List<Order> getOrders() { return orders; }
+    public boolean hasMore() { return hasMore; }
+    public LocalDateTime getLastOrderTime() { return orders.get(orders.size() - 1).getOrderTime(); }
+    public int getLastOrderId() { return orders.get(orders.size() - 1).getId(); }
+}
+
+// OrderItem Model
+class OrderItem {
+    private int id;
+    private int orderId;
+    private int menuItemId;
+    private String itemName;
+    private int quantity;
+    private Money price;
+
+    public OrderItem(int id, int orderId, int menuItemId, String itemName, int quantity, Money price) {
+        this.id = id;
+        this.orderId = orderId;
+        this.menuItemId = menuItemId;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    // Getters and setters
+    public int getId() { return id; }
+    public int getOrderId() { return orderId; }
+    public int getMenuItemId() { return menuItemId; }
+    public String getItemName() { return itemName; }
+    public int getQuantity() { return quantity; }
+    public Money getPrice() { return price; }
+    public Money getTotal() { return price.times(quantity); }
+    public long getTotalCents() { return price.multiplyCents(quantity); }
+
+    @Override
+    public String toString() {
+        return String.format("%s x%d @ $%s = $%s", itemName, quantity, price, getTotal());
+    }
+}
+
+// OrderLine Model: a menu item and quantity to add to an order
+class OrderLine {
+    private final int menuItemId;
+    private final int quantity;
+
+    public OrderLine(int menuItemId, int quantity) {
+        this.menuItemId = menuItemId;
+        this.quantity = quantity;
+    }
+
+    public int getMenuItemId() { return menuItemId; }
+    public int getQuantity() { return quantity; }
+}
+
+// Bill Model
+class Bill {
+    private int id;
+    private int orderId;
+    private Money subtotal;
+    private Money tax;
+    private Money total;
+    private String paymentStatus;
+    private LocalDateTime billTime;
+    private String taxLabel;
+
+    public Bill(int id, int orderId, Money subtotal, Money tax, Money total, String paymentStatus, LocalDateTime billTime,
+                String taxLabel) {
+        this.id = id;
+        this.orderId = orderId;
+        this.subtotal = subtotal;
+        this.tax = tax;
+        this.total = total;
+        this.paymentStatus = paymentStatus;
+        this.billTime = billTime;
+        this.taxLabel = taxLabel;
+    }
+
+    // Getters and setters
+    public int getId() { return id; }
+    public int getOrderId() { return orderId; }
+    public Money getSubtotal() { return subtotal; }
+    public Money getTax() { return tax; }
+    public Money getTotal() { return total; }
+    public String getPaymentStatus() { return paymentStatus; }
+    public LocalDateTime getBillTime() { return billTime; }
+    // The label the bill was printed with; bills from before labels were stored say plain "Tax"
+    public String getTaxLabel() { return taxLabel != null ? taxLabel : "Tax"; }
+}
+
+// Service Executor: runs blocking service calls off the caller's thread
+class ServiceExecutor {
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    // Virtual threads where the runtime has them (Java 21+), otherwise a bounded daemon pool
+    private static ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Beyond the pool size extra threads would only queue for a connection
+            int threads = DatabaseManager.getPool().getMaxSize() + 2;
+            AtomicLong counter = new AtomicLong();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "service-worker-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CancellableFuture<T> future = new CancellableFuture<>();
+        future.task = EXECUTOR.submit(() -> {
+            // Cancelled while still queued
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    // cancel() also interrupts the worker, so a queued request never reaches the database
+    static final class CancellableFuture<T> extends CompletableFuture<T> {
+        volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> running = task;
+            if (cancelled && running != null) {
+                running.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+    }
+}
+
+// Restaurant Event: a change published by the services
+class RestaurantEvent {
+    enum Type {
+        ORDER_CREATED, ITEM_ADDED, ITEM_REMOVED, ORDER_STATUS_CHANGED, TABLE_STATUS_CHANGED, MENU_ITEM_CHANGED, BILL_PAID
+    }
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final Type type;
+    private final long sequence = SEQUENCE.incrementAndGet();
+    private final int orderId;
+    private final int tableId;
+    private final int menuItemId;
+    private final int billId;
+    private final int quantity;
+    private final String status;
+
+    private RestaurantEvent(Type type, int orderId, int tableId, int menuItemId, int billId, int quantity, String status) {
+        this.type = type;
+        this.orderId = orderId;
+        this.tableId = tableId;
+        this.menuItemId = menuItemId;
+        this.billId = billId;
+        this.quantity = quantity;
+        this.status = status;
+    }
+
+    public static RestaurantEvent orderCreated(int orderId, int tableId) {
+        return new RestaurantEvent(Type.ORDER_CREATED, orderId, tableId, 0, 0, 0, "PENDING");
+    }
+
+    public static RestaurantEvent itemAdded(int orderId, int menuItemId, int quantity) {
+        return new RestaurantEvent(Type.ITEM_ADDED, orderId, 0, menuItemId, 0, quantity, null);
+    }
+
+    public static RestaurantEvent itemRemoved(int orderId) {
+        return new RestaurantEvent(Type.ITEM_REMOVED, orderId, 0, 0, 0, 0, null);
+    }
+
+    public static RestaurantEvent orderStatusChanged(int orderId, String status) {
+        return new RestaurantEvent(Type.ORDER_STATUS_CHANGED, orderId, 0, 0, 0, 0, status);
+    }
+
+    public static RestaurantEvent tableStatusChanged(int tableId, String status) {
+        return new RestaurantEvent(Type.TABLE_STATUS_CHANGED, 0, tableId, 0, 0, 0, status);
+    }
+
+    public static RestaurantEvent menuItemChanged(int menuItemId) {
+        return new RestaurantEvent(Type.MENU_ITEM_CHANGED, 0, 0, menuItemId, 0, 0, null);
+    }
+
+    public static RestaurantEvent billPaid(int billId) {
+        return new RestaurantEvent(Type.BILL_PAID, 0, 0, 0, billId, 0, "PAID");
+    }
+
+    public Type getType() { return type; }
+    public long getSequence() { return sequence; }
+    public int getOrderId() { return orderId; }
+    public int getTableId() { return tableId; }
+    public int getMenuItemId() { return menuItemId; }
+    public int getBillId() { return billId; }
+    public int getQuantity() { return quantity; }
+    public String getStatus() { return status; }
+
+    // Events with the same key supersede each other within a delivery batch; added items never do
+    long coalesceKey() {
+        int entityId;
+        switch (type) {
+            case ITEM_ADDED: return -sequence;
+            case TABLE_STATUS_CHANGED: entityId = tableId; break;
+            case MENU_ITEM_CHANGED: entityId = menuItemId; break;
+            case BILL_PAID: entityId = billId; break;
+            default: entityId = orderId; break;
+        }
+        return ((long) type.ordinal() << 32) | (entityId & 0xffffffffL);
+    }
+
+    @Override
+    public String toString() {
+        return type + "[order=" + orderId + ", table=" + tableId + ", menuItem=" + menuItemId
+                + ", bill=" + billId + ", quantity=" + quantity + ", status=" + status + "]";
+    }
+}
+
+// Event Bus: in-process publish/subscribe with coalesced, batched delivery
+class EventBus {
+    private static final EventBus INSTANCE = new EventBus(Long.getLong("restaurant.events.batchMillis", 100L));
+
+    private final long batchMillis;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher;
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+    public static EventBus getInstance() {
+        return INSTANCE;
+    }
+
+    EventBus(long batchMillis) {
+        this.batchMillis = batchMillis;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "event-bus-dispatcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public Subscription subscribe(Set<RestaurantEvent.Type> types, Consumer<List<RestaurantEvent>> handler) {
+        Subscription subscription = new Subscription(this, EnumSet.copyOf(types), handler);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void publish(RestaurantEvent event) {
+        boolean queued = false;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.types.contains(event.getType())) {
+                subscription.pending.add(event);
+                queued = true;
+            }
+        }
+        // The first event of a batch schedules the drain; the rest ride along
+        if (queued && dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.schedule(this::dispatch, batchMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void dispatch() {
+        dispatchScheduled.set(false);
+        for (Subscription subscription : subscriptions) {
+            List<RestaurantEvent> batch = subscription.drain();
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                subscription.handler.accept(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Error delivering events: " + e.getMessage());
+            }
+        }
+    }
+
+    static final class Subscription {
+        private final EventBus bus;
+        private final Set<RestaurantEvent.Type> types;
+        private final Consumer<List<RestaurantEvent>> handler;
+        private final ConcurrentLinkedQueue<RestaurantEvent> pending = new ConcurrentLinkedQueue<>();
+
+        Subscription(EventBus bus, Set<RestaurantEvent.Type> types, Consumer<List<RestaurantEvent>> handler) {
+            this.bus = bus;
+            this.types = types;
+            this.handler = handler;
+        }
+
+        // Keeps the latest event per key, in the order keys first appeared
+        List<RestaurantEvent> drain() {
+            Map<Long, RestaurantEvent> latest = new LinkedHashMap<>();
+            RestaurantEvent event;
+            while ((event = pending.poll()) != null) {
+                latest.put(event.coalesceKey(), event);
+            }
+            return new ArrayList<>(latest.values());
+        }
+
+        public void unsubscribe() {
+            bus.subscriptions.remove(this);
+            pending.clear();
+        }
+    }
+}
+
+// Operation Stats: latency, calls and errors for one service operation
+class OperationStats {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    // Usage: return STATS.time(() -> { ... }); anything the call throws is counted as an error and rethrown
+    public <T> T time(Supplier<T> call) {
+        long started = begin();
+        try {
+            return call.get();
+        } catch (RuntimeException | Error e) {
+            recordError();
+            throw e;
+        } finally {
+            end(started);
+        }
+    }
+
+    // begin and end must run on the same thread: the operation is pushed onto that thread's call stack
+    public long begin() {
+        ServiceMetrics.enter(this);
+        return System.nanoTime();
+    }
+
+    public void end(long started) {
+        latency.record(System.nanoTime() - started);
+        ServiceMetrics.exit();
+    }
+
+    // Records a span timed by the caller, e.g. one that starts and ends on different threads; nothing is pushed onto a call stack
+    public void record(long nanos) {
+        latency.record(nanos);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return latency.getCount(); }
+    public long getErrorCount() { return errors.sum(); }
+    public LatencyHistogram getLatency() { return latency; }
+
+    public void reset() {
+        latency.reset();
+        errors.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[calls=%d, errors=%d, p50=%.2fms, p99=%.2fms, p999=%.2fms, max=%.2fms]",
+                name, getCount(), getErrorCount(),
+                latency.getValueAtQuantile(0.50) / 1e6, latency.getValueAtQuantile(0.99) / 1e6,
+                latency.getValueAtQuantile(0.999) / 1e6, latency.getMax() / 1e6);
+    }
+}
+
+// Service Metrics: registry of operation stats, each published as restaurant:type=ServiceMetrics,name=<operation>
+class ServiceMetrics {
+    private static final Map<String, OperationStats> OPERATIONS = new ConcurrentHashMap<>();
+    private static final boolean JMX_ENABLED = Boolean.parseBoolean(System.getProperty("restaurant.metrics.jmx", "true"));
+
+    // Operations running on this thread, innermost last; lets lower layers attribute their work
+    private static final class CallStack {
+        final OperationStats[] frames = new OperationStats[16];
+        int depth;
+    }
+
+    private static final ThreadLocal<CallStack> CALLS = ThreadLocal.withInitial(CallStack::new);
+
+    static OperationStats operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, key -> {
+            OperationStats stats = new OperationStats(key);
+            if (JMX_ENABLED) {
+                register(stats);
+            }
+            return stats;
+        });
+    }
+
+    public static Collection<OperationStats> getOperations() {
+        List<OperationStats> operations = new ArrayList<>(OPERATIONS.values());
+        operations.sort(Comparator.comparing(OperationStats::getName));
+        return operations;
+    }
+
+    // The innermost service operation on this thread, or null outside one
+    public static OperationStats current() {
+        CallStack calls = CALLS.get();
+        return calls.depth > 0 ? calls.frames[Math.min(calls.depth, calls.frames.length) - 1] : null;
+    }
+
+    static void enter(OperationStats stats) {
+        CallStack calls = CALLS.get();
+        if (calls.depth < calls.frames.length) {
+            calls.frames[calls.depth] = stats;
+        }
+        calls.depth++;
+    }
+
+    static void exit() {
+        CallStack calls = CALLS.get();
+        if (calls.depth > 0) {
+            calls.depth--;
+            if (calls.depth < calls.frames.length) {
+                calls.frames[calls.depth] = null;
+            }
+        }
+    }
+
+    private static void register(OperationStats stats) {
+        try {
+            ObjectName objectName = new ObjectName("restaurant:type=ServiceMetrics,name=" + stats.getName());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new OperationStatsMBean(stats), objectName);
+        } catch (JMException e) {
+            System.err.println("Error registering metrics for " + stats.getName() + ": " + e.getMessage());
+        }
+    }
+}
+
+// Operation Stats MBean: read-only JMX view of one operation, plus a reset operation
+class OperationStatsMBean implements DynamicMBean {
+    private static final String[] ATTRIBUTES = {
+            "Count", "Errors", "MeanMillis", "P50Millis", "P99Millis", "P999Millis", "MaxMillis"
+    };
+    private static final MBeanInfo INFO = buildInfo();
+
+    private final OperationStats stats;
+
+    OperationStatsMBean(OperationStats stats) {
+        this.stats = stats;
+    }
+
+    private static MBeanInfo buildInfo() {
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[ATTRIBUTES.length];
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            String type = i < 2 ? Long.class.getName() : Double.class.getName();
+            attributes[i] = new MBeanAttributeInfo(ATTRIBUTES[i], type, ATTRIBUTES[i], true, false, false);
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Clear latency and error counts",
+                null, "void", MBeanOperationInfo.ACTION);
+        return new MBeanInfo(OperationStatsMBean.class.getName(), "Service operation latency",
+                attributes, null, new MBeanOperationInfo[] {reset}, null);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        LatencyHistogram latency = stats.getLatency();
+        switch (attribute) {
+            case "Count": return stats.getCount();
+            case "Errors": return stats.getErrorCount();
+            case "MeanMillis": return latency.getMean() / 1e6;
+            case "P50Millis": return latency.getValueAtQuantile(0.50) / 1e6;
+            case "P99Millis": return latency.getValueAtQuantile(0.99) / 1e6;
+            case "P999Millis": return latency.getValueAtQuantile(0.999) / 1e6;
+            case "MaxMillis": return latency.getMax() / 1e6;
+            default: throw new AttributeNotFoundException(attribute);
+        }
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // Unknown names are left out, as the DynamicMBean contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if ("reset".equals(actionName)) {
+            stats.reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return INFO;
+    }
+}
+
+// User Management Service
+class UserManagementService {
+    private static final OperationStats REGISTER_USER = ServiceMetrics.operation("UserManagementService.registerUser");
+    private static final OperationStats GET_ALL_USERS = ServiceMetrics.operation("UserManagementService.getAllUsers");
+    private static final OperationStats AUTHENTICATE_USER = ServiceMetrics.operation("UserManagementService.authenticateUser");
+    private static final OperationStats ENSURE_DEFAULT_ADMIN = ServiceMetrics.operation("UserManagementService.ensureDefaultAdmin");
+
+    public boolean registerUser(String username, String password, String role) {
+        return REGISTER_USER.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setString(1, username);
+                pstmt.setString(2, password); // In production, hash the password
+                pstmt.setString(3, role);
+
+                int affected = pstmt.executeUpdate();
+                return affected > 0;
+
+            } catch (SQLException e) {
+                REGISTER_USER.recordError();
+                System.err.println("Error registering user: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    // Looks before inserting, so later starts do not log a duplicate-key error every time
+    public boolean ensureDefaultAdmin() {
+        return ENSURE_DEFAULT_ADMIN.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM users WHERE username = ?");
+                pstmt.setString(1, "admin");
+                if (pstmt.executeQuery().next()) {
+                    return false;
+                }
+            } catch (SQLException e) {
+                ENSURE_DEFAULT_ADMIN.recordError();
+                System.err.println("Error checking for default admin: " + e.getMessage());
+                return false;
+            }
+            return registerUser("admin", "admin123", "ADMIN");
+        });
+    }
+        static List<User> getAllUsers() {
+            return GET_ALL_USERS.time(() -> {
+                List<User> users = new ArrayList<>();
+                try (Connection conn = DatabaseManager.getConnection()) {
+                    String sql = "SELECT * FROM users ORDER BY username";
+                    PreparedStatement pstmt = conn.prepareStatement(sql);
+                    ResultSet rs = pstmt.executeQuery();
+
+                    while (rs.next()) {
+                        User user = new User(
+                                rs.getInt("id"),
+                                rs.getString("username"),
+                                rs.getString("password"),
+                                rs.getString("role"),
+                                rs.getTimestamp("created_at").toLocalDateTime()
+                        );
+                        users.add(user);
+                    }
+
+                } catch (SQLException e) {
+                    GET_ALL_USERS.recordError();
+                    System.err.println("Error fetching users: " + e.getMessage());
+                }
+                return users;
+            });
+        }
+
+
+    public User authenticateUser(String username, String password) {
+        return AUTHENTICATE_USER.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setString(1, username);
+                pstmt.setString(2, password);
+
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    return new User(rs.getInt("id"), rs.getString("username"),
+                            rs.getString("password"), rs.getString("role"),rs.getTimestamp("created_at").toLocalDateTime());
+                }
+
+            } catch (SQLException e) {
+                AUTHENTICATE_USER.recordError();
+                System.err.println("Error authenticating user: " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    // Async variants: run on ServiceExecutor so UI threads never block on JDBC
+    public CompletableFuture<Boolean> registerUserAsync(String username, String password, String role) {
+        return ServiceExecutor.supply(() -> registerUser(username, password, role));
+    }
+
+    static CompletableFuture<List<User>> getAllUsersAsync() {
+        return ServiceExecutor.supply(UserManagementService::getAllUsers);
+    }
+
+    public CompletableFuture<User> authenticateUserAsync(String username, String password) {
+        return ServiceExecutor.supply(() -> authenticateUser(username, password));
+    }
+}
+
+
+// Menu Search Index: typeahead over item name, category and description. Every prefix of every word is
+// a trie node listing the words under it; word trigrams catch typos the prefixes miss. Built once per
+// menu catalog version and never modified, so searches take no locks.
+final class MenuSearchIndex {
+    private static final int NAME = 3, CATEGORY = 2, DESCRIPTION = 1;
+    // Dice similarity a misspelt word needs to count as a match
+    private static final double MIN_SIMILARITY = 0.45;
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        // Ids of the words that start with the prefix ending here
+        int[] words = new int[0];
+        int wordCount;
+
+        Node child(char key, boolean create) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = key;
+            return children[children.length - 1] = new Node();
+        }
+
+        void addWord(int word) {
+            if (wordCount == words.length) {
+                words = Arrays.copyOf(words, Math.max(4, wordCount * 2));
+            }
+            words[wordCount++] = word;
+        }
+    }
+
+    private final List<MenuItem> items;
+    private final Node root = new Node();
+    private final List<String> words = new ArrayList<>();
+    // Per word: item index * 4 + the best field weight the word appears in for that item
+    private final List<int[]> postings = new ArrayList<>();
+    private final Map<String, int[]> trigrams = new HashMap<>();
+
+    MenuSearchIndex(List<MenuItem> items) {
+        this.items = items;
+        Map<String, Map<Integer, Integer>> wordItems = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            MenuItem item = items.get(i);
+            addField(wordItems, i, item.getName(), NAME);
+            addField(wordItems, i, item.getCategory(), CATEGORY);
+            addField(wordItems, i, item.getDescription(), DESCRIPTION);
+        }
+
+        Map<String, List<Integer>> trigramWords = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, Integer>> entry : wordItems.entrySet()) {
+            String word = entry.getKey();
+            int id = words.size();
+            words.add(word);
+            postings.add(entry.getValue().entrySet().stream().mapToInt(e -> e.getKey() * 4 + e.getValue()).toArray());
+
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.child(word.charAt(i), true);
+                node.addWord(id);
+            }
+            for (String trigram : trigramsOf(word)) {
+                trigramWords.computeIfAbsent(trigram, k -> new ArrayList<>()).add(id);
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : trigramWords.entrySet()) {
+            trigrams.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    private static void addField(Map<String, Map<Integer, Integer>> wordItems, int item, String text, int weight) {
+        for (String word : tokenize(text)) {
+            wordItems.computeIfAbsent(word, k -> new LinkedHashMap<>()).merge(item, weight, Math::max);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> trigramsOf(String word) {
+        String padded = " " + word + " ";
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    // Items matching every word of the query, best first; a blank query lists the menu in order
+    public List<MenuItem> search(String query, int limit, Predicate<MenuItem> filter) {
+        List<String> terms = tokenize(query);
+        List<MenuItem> result = new ArrayList<>();
+        if (terms.isEmpty()) {
+            for (MenuItem item : items) {
+                if (result.size() == limit) {
+                    break;
+                }
+                if (filter.test(item)) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+
+        double[] scores = new double[items.size()];
+        int[] matched = new int[items.size()];
+        for (String term : terms) {
+            double[] termScores = new double[items.size()];
+            Node node = root;
+            for (int i = 0; i < term.length() && node != null; i++) {
+                node = node.child(term.charAt(i), false);
+            }
+            if (node != null) {
+                for (int w = 0; w < node.wordCount; w++) {
+                    int word = node.words[w];
+                    // A whole word beats a word that merely starts with the term
+                    double boost = words.get(word).length() == term.length() ? 1.25 : 1.0;
+                    score(word, boost, termScores);
+                }
+            }
+            if (term.length() >= 3) {
+                addFuzzy(term, termScores);
+            }
+            for (int i = 0; i < termScores.length; i++) {
+                if (termScores[i] > 0) {
+                    scores[i] += termScores[i];
+                    matched[i]++;
+                }
+            }
+        }
+
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (matched[i] == terms.size() && filter.test(items.get(i))) {
+                hits.add(i);
+            }
+        }
+        hits.sort((a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : Integer.compare(a, b));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            result.add(items.get(hits.get(i)));
+        }
+        return result;
+    }
+
+    private void score(int word, double factor, double[] termScores) {
+        for (int posting : postings.get(word)) {
+            int item = posting / 4;
+            termScores[item] = Math.max(termScores[item], (posting % 4) * factor);
+        }
+    }
+
+    // Words sharing enough trigrams with the term; scored below any prefix match of the same field
+    private void addFuzzy(String term, double[] termScores) {
+        Set<String> termTrigrams = trigramsOf(term);
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String trigram : termTrigrams) {
+            int[] candidates = trigrams.get(trigram);
+            if (candidates != null) {
+                for (int word : candidates) {
+                    shared.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            // A word of n letters, padded with a space each side, has n trigrams
+            int wordTrigrams = words.get(entry.getKey()).length();
+            double similarity = 2.0 * entry.getValue() / (termTrigrams.size() + wordTrigrams);
+            if (similarity >= MIN_SIMILARITY) {
+                score(entry.getKey(), 0.8 * similarity, termScores);
+            }
+        }
+    }
+}
+
+// Menu Management Service
+class MenuManagementService {
+    private static final OperationStats ADD_MENU_ITEM = ServiceMetrics.operation("MenuManagementService.addMenuItem");
+    private static final OperationStats UPDATE_MENU_ITEM = ServiceMetrics.operation("MenuManagementService.updateMenuItem");
+    private static final OperationStats DELETE_MENU_ITEM = ServiceMetrics.operation("MenuManagementService.deleteMenuItem");
+    private static final OperationStats GET_ALL_MENU_ITEMS = ServiceMetrics.operation("MenuManagementService.getAllMenuItems");
+    private static final OperationStats GET_MENU_ITEMS_BY_CATEGORY = ServiceMetrics.operation("MenuManagementService.getMenuItemsByCategory");
+    private static final OperationStats UPDATE_ITEM_AVAILABILITY = ServiceMetrics.operation("MenuManagementService.updateItemAvailability");
+    private static final OperationStats GET_MENU_ITEM_BY_ID = ServiceMetrics.operation("MenuManagementService.getMenuItemById");
+    private static final OperationStats SEARCH_MENU_ITEMS = ServiceMetrics.operation("MenuManagementService.searchMenuItems");
+    private static final OperationStats SEARCH_LOADED_MENU_ITEMS = ServiceMetrics.operation("MenuManagementService.searchLoadedMenuItems");
+
+    private final MenuCatalog catalog = MenuCatalog.getInstance();
+
+    public boolean addMenuItem(String name, String category, BigDecimal price, String description) {
+        return ADD_MENU_ITEM.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "INSERT INTO menu_items (name, category, price, description) VALUES (?, ?, ?, ?)";
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                pstmt.setString(1, name);
+                pstmt.setString(2, category);
+                pstmt.setBigDecimal(3, price);
+                pstmt.setString(4, description);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    ResultSet rs = pstmt.getGeneratedKeys();
+                    if (rs.next()) {
+                        int id = rs.getInt(1);
+                        catalog.put(new MenuItem(id, name, category, price, true, description));
+                        EventBus.getInstance().publish(RestaurantEvent.menuItemChanged(id));
+                    } else {
+                        catalog.invalidate();
+                    }
+                }
+                return affected > 0;
+
+            } catch (SQLException e) {
+                ADD_MENU_ITEM.recordError();
+                System.err.println("Error adding menu item: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    public boolean updateMenuItem(int id, String name, String category, BigDecimal price, String description) {
+        return UPDATE_MENU_ITEM.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "UPDATE menu_items SET name = ?, category = ?, price = ?, description = ? WHERE id = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setString(1, name);
+                pstmt.setString(2, category);
+                pstmt.setBigDecimal(3, price);
+                pstmt.setString(4, description);
+                pstmt.setInt(5, id);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    MenuItem current = catalog.get(id);
+                    if (current != null) {
+                        catalog.put(new MenuItem(id, name, category, price, current.isAvailable(), description));
+                    } else {
+                        catalog.invalidate();
+                    }
+                    EventBus.getInstance().publish(RestaurantEvent.menuItemChanged(id));
+                }
+                return affected > 0;
+
+            } catch (SQLException e) {
+                UPDATE_MENU_ITEM.recordError();
+                System.err.println("Error updating menu item: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    public boolean deleteMenuItem(int id) {
+        return DELETE_MENU_ITEM.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "DELETE FROM menu_items WHERE id = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setInt(1, id);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    catalog.remove(id);
+                    EventBus.getInstance().publish(RestaurantEvent.menuItemChanged(id));
+                }
+                return affected > 0;
+
+            } catch (SQLException e) {
+                DELETE_MENU_ITEM.recordError();
+                System.err.println("Error deleting menu item: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    public List<MenuItem> getAllMenuItems() {
+        return GET_ALL_MENU_ITEMS.time(() -> {
+            return catalog.getAll();
+        });
+    }
+
+    // Typeahead for the item pickers; answered from memory
+    public List<MenuItem> searchMenuItems(String query, int limit, boolean availableOnly) {
+        return SEARCH_MENU_ITEMS.time(() -> {
+            return catalog.search(query, limit, item -> !availableOnly || item.isAvailable());
+        });
+    }
+
+    // Typeahead on the EDT: never waits on the database; an out-of-date menu is refreshed in the background
+    public List<MenuItem> searchLoadedMenuItems(String query, int limit, boolean availableOnly) {
+        return SEARCH_LOADED_MENU_ITEMS.time(() -> {
+            return catalog.searchLoaded(query, limit, item -> !availableOnly || item.isAvailable());
+        });
+    }
+
+    public List<MenuItem> getMenuItemsByCategory(String category) {
+        return GET_MENU_ITEMS_BY_CATEGORY.time(() -> {
+            return catalog.getByCategory(category);
+        });
+    }
+
+    public boolean updateItemAvailability(int id, boolean available) {
+        return UPDATE_ITEM_AVAILABILITY.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "UPDATE menu_items SET available = ? WHERE id = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setBoolean(1, available);
+                pstmt.setInt(2, id);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    MenuItem current = catalog.get(id);
+                    if (current != null) {
+                        catalog.put(new MenuItem(id, current.getName(), current.getCategory(), current.getPrice(),
+                                available, current.getDescription()));
+                    } else {
+                        catalog.invalidate();
+                    }
+                    EventBus.getInstance().publish(RestaurantEvent.menuItemChanged(id));
+                }
+                return affected > 0;
+
+            } catch (SQLException e) {
+                UPDATE_ITEM_AVAILABILITY.recordError();
+                System.err.println("Error updating item availability: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    public MenuItem getMenuItemById(int id) {
+        return GET_MENU_ITEM_BY_ID.time(() -> {
+            MenuItem cached = catalog.get(id);
+            if (cached != null) {
+                return cached;
+            }
+
+            // Not in the catalog: it may have been added from another terminal since the last load
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "SELECT * FROM menu_items WHERE id = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setInt(1, id);
+                ResultSet rs = pstmt.executeQuery();
+
+                if (rs.next()) {
+                    MenuItem item = mapMenuItem(rs);
+                    catalog.put(item);
+                    return item;
+                }
+
+            } catch (SQLException e) {
+                GET_MENU_ITEM_BY_ID.recordError();
+                System.err.println("Error fetching menu item: " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    // Checked against idx_menu_items_category_name by SchemaMigrator
+    static final String ALL_MENU_ITEMS_SQL = "SELECT * FROM menu_items ORDER BY category, name";
+
+    static List<MenuItem> loadAllMenuItems() throws SQLException {
+        List<MenuItem> items = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            PreparedStatement pstmt = conn.prepareStatement(ALL_MENU_ITEMS_SQL);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                items.add(mapMenuItem(rs));
+            }
+        }
+        return items;
+    }
+
+    private static MenuItem mapMenuItem(ResultSet rs) throws SQLException {
+        return new MenuItem(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("category"),
+                rs.getBigDecimal("price"),
+                rs.getBoolean("available"),
+                rs.getString("description")
+        );
+    }
+
+    // Async variants
+    public CompletableFuture<Boolean> addMenuItemAsync(String name, String category, BigDecimal price, String description) {
+        return ServiceExecutor.supply(() -> addMenuItem(name, category, price, description));
+    }
+
+    public CompletableFuture<Boolean> updateMenuItemAsync(int id, String name, String category, BigDecimal price, String description) {
+        return ServiceExecutor.supply(() -> updateMenuItem(id, name, category, price, description));
+    }
+
+    public CompletableFuture<Boolean> deleteMenuItemAsync(int id) {
+        return ServiceExecutor.supply(() -> deleteMenuItem(id));
+    }
+
+    public CompletableFuture<List<MenuItem>> getAllMenuItemsAsync() {
+        return ServiceExecutor.supply(this::getAllMenuItems);
+    }
+
+    public CompletableFuture<List<MenuItem>> getMenuItemsByCategoryAsync(String category) {
+        return ServiceExecutor.supply(() -> getMenuItemsByCategory(category));
+    }
+
+    public CompletableFuture<Boolean> updateItemAvailabilityAsync(int id, boolean available) {
+        return ServiceExecutor.supply(() -> updateItemAvailability(id, available));
+    }
+
+    public CompletableFuture<MenuItem> getMenuItemByIdAsync(int id) {
+        return ServiceExecutor.supply(() -> getMenuItemById(id));
+    }
+}
+
+// Menu Catalog
+class MenuCatalog {
+    private static final MenuCatalog INSTANCE = new MenuCatalog(
+            Long.getLong("restaurant.menu.maxStalenessMillis", 60_000L));
+
+    // Matches the ORDER BY category, name of the menu query under MySQL's case-insensitive collation
+    private static final Comparator<MenuItem> MENU_ORDER = Comparator
+            .comparing(MenuItem::getCategory, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(MenuItem::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private final long maxStalenessMillis;
+    private volatile Snapshot snapshot;
+    private long version;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public static MenuCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    MenuCatalog(long maxStalenessMillis) {
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    // An immutable view of the menu; readers never lock
+    private static final class Snapshot {
+        final long version;
+        final long loadedAt;
+        final List<MenuItem> items;
+        final Map<Integer, MenuItem> byId;
+        final Map<String, List<MenuItem>> byCategory;
+        // Built by the first search against this version of the menu
+        volatile MenuSearchIndex searchIndex;
+
+        Snapshot(long version, long loadedAt, List<MenuItem> items) {
+            List<MenuItem> sorted = new ArrayList<>(items);
+            sorted.sort(MENU_ORDER);
+            Map<Integer, MenuItem> idIndex = new HashMap<>(sorted.size() * 2);
+            Map<String, List<MenuItem>> categoryIndex = new HashMap<>();
+            for (MenuItem item : sorted) {
+                idIndex.put(item.getId(), item);
+                categoryIndex.computeIfAbsent(categoryKey(item.getCategory()), k -> new ArrayList<>()).add(item);
+            }
+            categoryIndex.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.items = Collections.unmodifiableList(sorted);
+            this.byId = idIndex;
+            this.byCategory = categoryIndex;
+        }
+    }
+
+    public List<MenuItem> getAll() {
+        Snapshot current = current();
+        return current == null ? new ArrayList<>() : current.items;
+    }
+
+    public MenuItem get(int id) {
+        Snapshot current = current();
+        return current == null ? null : current.byId.get(id);
+    }
+
+    public List<MenuItem> getByCategory(String category) {
+        Snapshot current = current();
+        if (current == null || category == null) {
+            return new ArrayList<>();
+        }
+        return current.byCategory.getOrDefault(categoryKey(category), Collections.emptyList());
+    }
+
+    public List<MenuItem> search(String query, int limit, Predicate<MenuItem> filter) {
+        Snapshot current = current();
+        return current == null ? new ArrayList<>() : searchIndex(current).search(query, limit, filter);
+    }
+
+    // Never waits on the database, so it may run on the EDT: searches the menu already in memory
+    // (nothing before the first load) and reloads a missing or stale one in the background
+    public List<MenuItem> searchLoaded(String query, int limit, Predicate<MenuItem> filter) {
+        Snapshot current = snapshot;
+        if (isStale(current)) {
+            reloadInBackground();
+        }
+        return current == null ? new ArrayList<>() : searchIndex(current).search(query, limit, filter);
+    }
+
+    private static MenuSearchIndex searchIndex(Snapshot current) {
+        MenuSearchIndex index = current.searchIndex;
+        if (index == null) {
+            // Two threads may both build it; the indexes are identical, so either may win
+            index = new MenuSearchIndex(current.items);
+            current.searchIndex = index;
+        }
+        return index;
+    }
+
+    private void reloadInBackground() {
+        if (refreshing.compareAndSet(false, true)) {
+            ServiceExecutor.supply(() -> {
+                try {
+                    return current();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    public long getVersion() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.version;
+    }
+
+    // Write-through: called after the database write has succeeded
+    public synchronized void put(MenuItem item) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        List<MenuItem> items = new ArrayList<>(current.items.size() + 1);
+        for (MenuItem existing : current.items) {
+            if (existing.getId() != item.getId()) {
+                items.add(existing);
+            }
+        }
+        items.add(item);
+        snapshot = new Snapshot(++version, current.loadedAt, items);
+    }
+
+    public synchronized void remove(int id) {
+        Snapshot current = snapshot;
+        if (current == null || !current.byId.containsKey(id)) {
+            return;
+        }
+        List<MenuItem> items = new ArrayList<>(current.items);
+        items.removeIf(item -> item.getId() == id);
+        snapshot = new Snapshot(++version, current.loadedAt, items);
+    }
+
+    // Drops the cached menu so the next read reloads it from the database
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    public synchronized boolean reload() {
+        try {
+            List<MenuItem> items = MenuManagementService.loadAllMenuItems();
+            snapshot = new Snapshot(++version, System.currentTimeMillis(), items);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error loading menu catalog: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Reload on first use, and periodically so edits made on other terminals show up
+    private boolean isStale(Snapshot current) {
+        return current == null || System.currentTimeMillis() - current.loadedAt > maxStalenessMillis;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (isStale(current)) {
+            synchronized (this) {
+                if (snapshot == current && !reload() && current != null) {
+                    // Keep serving the last good menu while the database is unreachable; the items did not
+                    // change, so neither does their search index
+                    Snapshot kept = new Snapshot(current.version, System.currentTimeMillis(), current.items);
+                    kept.searchIndex = current.searchIndex;
+                    snapshot = kept;
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static String categoryKey(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+}
+
+// Table Occupancy: in-memory table states indexed by table id, changed only by compare-and-set.
+// Conflicting seat attempts are turned away here without touching the database.
+class TableOccupancy {
+    static final int UNKNOWN = 0;
+    static final int AVAILABLE = 1;
+    static final int OCCUPIED = 2;
+    static final int RESERVED = 3;
+    static final int SEATING = 4;
+
+    private static final TableOccupancy INSTANCE = new TableOccupancy(Integer.getInteger("restaurant.tables.initialCapacity", 256));
+
+    // CAS traffic holds the read lock; only growing the array takes the write lock
+    private final StampedLock resizeLock = new StampedLock();
+    private volatile AtomicIntegerArray states;
+    private final AtomicLong conflicts = new AtomicLong();
+
+    public static TableOccupancy getInstance() {
+        return INSTANCE;
+    }
+
+    TableOccupancy(int initialCapacity) {
+        this.states = new AtomicIntegerArray(Math.max(16, initialCapacity));
+    }
+
+    static int toState(String status) {
+        if (status == null) {
+            return UNKNOWN;
+        }
+        switch (status) {
+            case "AVAILABLE": return AVAILABLE;
+            case "OCCUPIED": return OCCUPIED;
+            case "RESERVED": return RESERVED;
+            default: return UNKNOWN;
+        }
+    }
+
+    public int get(int tableId) {
+        AtomicIntegerArray current = states;
+        return tableId >= 0 && tableId < current.length() ? current.get(tableId) : UNKNOWN;
+    }
+
+    public boolean compareAndSet(int tableId, int expect, int update) {
+        ensureCapacity(tableId);
+        long stamp = resizeLock.readLock();
+        try {
+            return states.compareAndSet(tableId, expect, update);
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+
+    // Records a status read from or written to the database; a seat in progress is left alone
+    public void observe(int tableId, String status) {
+        int state = toState(status);
+        ensureCapacity(tableId);
+        long stamp = resizeLock.readLock();
+        try {
+            AtomicIntegerArray current = states;
+            int existing;
+            do {
+                existing = current.get(tableId);
+                if (existing == SEATING) {
+                    return;
+                }
+            } while (!current.compareAndSet(tableId, existing, state));
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+
+    public void forget(int tableId) {
+        observe(tableId, null);
+    }
+
+    void recordConflict() {
+        conflicts.incrementAndGet();
+    }
+
+    public long getConflictCount() {
+        return conflicts.get();
+    }
+
+    private void ensureCapacity(int tableId) {
+        if (tableId < 0) {
+            throw new IllegalArgumentException("Invalid table id: " + tableId);
+        }
+        if (tableId < states.length()) {
+            return;
+        }
+        long stamp = resizeLock.writeLock();
+        try {
+            AtomicIntegerArray current = states;
+            if (tableId >= current.length()) {
+                AtomicIntegerArray grown = new AtomicIntegerArray(Math.max(tableId + 1, current.length() * 2));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                states = grown;
+            }
+        } finally {
+            resizeLock.unlockWrite(stamp);
+        }
+    }
+}
+
+// Table Management Service
+class TableManagementService {
+    private static final OperationStats ADD_TABLE = ServiceMetrics.operation("TableManagementService.addTable");
+    private static final OperationStats GET_ALL_TABLES = ServiceMetrics.operation("TableManagementService.getAllTables");
+    private static final OperationStats UPDATE_TABLE_STATUS = ServiceMetrics.operation("TableManagementService.updateTableStatus");
+    private static final OperationStats SEAT_PARTY = ServiceMetrics.operation("TableManagementService.seatParty");
+    private static final OperationStats RELEASE_TABLE = ServiceMetrics.operation("TableManagementService.releaseTable");
+    private static final OperationStats GET_AVAILABLE_TABLES = ServiceMetrics.operation("TableManagementService.getAvailableTables");
+
+    // Checked against idx_tables_status by SchemaMigrator
+    static final String AVAILABLE_TABLES_SQL = "SELECT * FROM tables WHERE status = 'AVAILABLE' ORDER BY table_number";
+
+    private final TableOccupancy occupancy = TableOccupancy.getInstance();
+
+    public boolean addTable(int tableNumber, int capacity) {
+        return ADD_TABLE.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "INSERT INTO tables (table_number, capacity) VALUES (?, ?)";
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                pstmt.setInt(1, tableNumber);
+                pstmt.setInt(2, capacity);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    ResultSet rs = pstmt.getGeneratedKeys();
+                    if (rs.next()) {
+                        EventBus.getInstance().publish(RestaurantEvent.tableStatusChanged(rs.getInt(1), "AVAILABLE"));
+                    }
+                }
+                return affected > 0;
+
+            } catch (SQLException e) {
+                ADD_TABLE.recordError();
+                System.err.println("Error adding table: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    public List<RestaurantTable> getAllTables() {
+        return GET_ALL_TABLES.time(() -> {
+            List<RestaurantTable> tables = new ArrayList<>();
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "SELECT * FROM tables ORDER BY table_number";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    RestaurantTable table = new RestaurantTable(
+                            rs.getInt("id"),
+                            rs.getInt("table_number"),
+                            rs.getInt("capacity"),
+                            rs.getString("status")
+                    );
+                    occupancy.observe(table.getId(), table.getStatus());
+                    tables.add(table);
+                }
+
+            } catch (SQLException e) {
+                GET_ALL_TABLES.recordError();
+                System.err.println("Error fetching tables: " + e.getMessage());
+            }
+            return tables;
+        });
+    }
+
+    public boolean updateTableStatus(int tableId, String status) {
+        return UPDATE_TABLE_STATUS.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "UPDATE tables SET status = ? WHERE id = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setString(1, status);
+                pstmt.setInt(2, tableId);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    occupancy.observe(tableId, status);
+                    EventBus.getInstance().publish(RestaurantEvent.tableStatusChanged(tableId, status));
+                }
+                return affected > 0;
+
+            } catch (SQLException e) {
+                UPDATE_TABLE_STATUS.recordError();
+                System.err.println("Error updating table status: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    // Atomically takes an available table; returns false straight away if someone else got there first
+    public boolean seatParty(int tableId) {
+        return SEAT_PARTY.time(() -> {
+            if (occupancy.get(tableId) == TableOccupancy.UNKNOWN && !loadTableState(tableId)) {
+                return false;
+            }
+            if (!occupancy.compareAndSet(tableId, TableOccupancy.AVAILABLE, TableOccupancy.SEATING)) {
+                // Another terminal may have freed the table since we last looked: ask the database once before giving up.
+                // A seat in progress here is a real conflict and is never reloaded over.
+                if (occupancy.get(tableId) == TableOccupancy.SEATING || !loadTableState(tableId)
+                        || !occupancy.compareAndSet(tableId, TableOccupancy.AVAILABLE, TableOccupancy.SEATING)) {
+                    occupancy.recordConflict();
+                    return false;
+                }
+            }
+
+            try (Connection conn = DatabaseManager.getConnection()) {
+                // Conditional so another process seating the same table still loses cleanly
+                String sql = "UPDATE tables SET status = 'OCCUPIED' WHERE id = ? AND status = 'AVAILABLE'";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setInt(1, tableId);
+
+                if (pstmt.executeUpdate() > 0) {
+                    occupancy.compareAndSet(tableId, TableOccupancy.SEATING, TableOccupancy.OCCUPIED);
+                    EventBus.getInstance().publish(RestaurantEvent.tableStatusChanged(tableId, "OCCUPIED"));
+                    return true;
+                }
+                // The database disagrees with us: reload on next use
+                occupancy.compareAndSet(tableId, TableOccupancy.SEATING, TableOccupancy.UNKNOWN);
+                occupancy.recordConflict();
+                return false;
+
+            } catch (SQLException e) {
+                occupancy.compareAndSet(tableId, TableOccupancy.SEATING, TableOccupancy.AVAILABLE);
+                SEAT_PARTY.recordError();
+                System.err.println("Error seating party: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    // Frees an occupied or reserved table, e.g. when its order completes or could not be created
+    public boolean releaseTable(int tableId) {
+        return RELEASE_TABLE.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "UPDATE tables SET status = 'AVAILABLE' WHERE id = ? AND status IN ('OCCUPIED', 'RESERVED')";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setInt(1, tableId);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    occupancy.observe(tableId, "AVAILABLE");
+                    EventBus.getInstance().publish(RestaurantEvent.tableStatusChanged(tableId, "AVAILABLE"));
+                } else {
+                    occupancy.forget(tableId);
+                }
+                return affected > 0;
+
+            } catch (SQLException e) {
+                RELEASE_TABLE.recordError();
+                System.err.println("Error releasing table: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    private boolean loadTableState(int tableId) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            String sql = "SELECT status FROM tables WHERE id = ?";
+            PreparedStatement pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, tableId);
+            ResultSet rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                occupancy.observe(tableId, rs.getString("status"));
+                return true;
+            }
+            return false;
+
+        } catch (SQLException e) {
+            System.err.println("Error loading table status: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public List<RestaurantTable> getAvailableTables() {
+        return GET_AVAILABLE_TABLES.time(() -> {
+            List<RestaurantTable> tables = new ArrayList<>();
+            try (Connection conn = DatabaseManager.getConnection()) {
+                PreparedStatement pstmt = conn.prepareStatement(AVAILABLE_TABLES_SQL);
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    RestaurantTable table = new RestaurantTable(
+                            rs.getInt("id"),
+                            rs.getInt("table_number"),
+                            rs.getInt("capacity"),
+                            rs.getString("status")
+                    );
+                    occupancy.observe(table.getId(), table.getStatus());
+                    tables.add(table);
+                }
+
+            } catch (SQLException e) {
+                GET_AVAILABLE_TABLES.recordError();
+                System.err.println("Error fetching available tables: " + e.getMessage());
+            }
+            return tables;
+        });
+    }
+
+    // Async variants
+    public CompletableFuture<Boolean> addTableAsync(int tableNumber, int capacity) {
+        return ServiceExecutor.supply(() -> addTable(tableNumber, capacity));
+    }
+
+    public CompletableFuture<List<RestaurantTable>> getAllTablesAsync() {
+        return ServiceExecutor.supply(this::getAllTables);
+    }
+
+    public CompletableFuture<Boolean> updateTableStatusAsync(int tableId, String status) {
+        return ServiceExecutor.supply(() -> updateTableStatus(tableId, status));
+    }
+
+    public CompletableFuture<List<RestaurantTable>> getAvailableTablesAsync() {
+        return ServiceExecutor.supply(this::getAvailableTables);
+    }
+
+    public CompletableFuture<Boolean> seatPartyAsync(int tableId) {
+        return ServiceExecutor.supply(() -> seatParty(tableId));
+    }
+
+    public CompletableFuture<Boolean> releaseTableAsync(int tableId) {
+        return ServiceExecutor.supply(() -> releaseTable(tableId));
+    }
+}
+
+// Order Management Service
+class OrderManagementService {
+    private static final OperationStats CREATE_ORDER = ServiceMetrics.operation("OrderManagementService.createOrder");
+    private static final OperationStats ADD_ITEM_TO_ORDER = ServiceMetrics.operation("OrderManagementService.addItemToOrder");
+    private static final OperationStats ADD_ITEMS_TO_ORDER = ServiceMetrics.operation("OrderManagementService.addItemsToOrder");
+    private static final OperationStats REMOVE_ITEM_FROM_ORDER = ServiceMetrics.operation("OrderManagementService.removeItemFromOrder");
+    private static final OperationStats GET_ALL_ORDERS = ServiceMetrics.operation("OrderManagementService.getAllOrders");
+    private static final OperationStats GET_ALL_ORDER_SUMMARIES = ServiceMetrics.operation("OrderManagementService.getAllOrderSummaries");
+    private static final OperationStats GET_ORDER_SUMMARIES = ServiceMetrics.operation("OrderManagementService.getOrderSummaries");
+    private static final OperationStats GET_ORDERS_PAGE = ServiceMetrics.operation("OrderManagementService.getOrdersPage");
+    private static final OperationStats STREAM_ORDERS = ServiceMetrics.operation("OrderManagementService.streamOrders");
+    private static final OperationStats GET_ORDER_ITEMS = ServiceMetrics.operation("OrderManagementService.getOrderItems");
+    private static final OperationStats GET_ORDER_ITEMS_FOR_ORDERS = ServiceMetrics.operation("OrderManagementService.getOrderItemsForOrders");
+    private static final OperationStats UPDATE_ORDER_STATUS = ServiceMetrics.operation("OrderManagementService.updateOrderStatus");
+    private static final OperationStats GET_ORDER_BY_ID = ServiceMetrics.operation("OrderManagementService.getOrderById");
+
+    // IN-list widths used when loading items for many orders at once
+    private static final int[] ITEM_BATCH_SIZES = {1, 8, 64, 500};
+    private static final String[] ITEM_BATCH_SQL = new String[ITEM_BATCH_SIZES.length];
+    private static final String[] PRICE_BATCH_SQL = new String[ITEM_BATCH_SIZES.length];
+    private static final String[] SUMMARY_BATCH_SQL = new String[ITEM_BATCH_SIZES.length];
+
+    static {
+        for (int i = 0; i < ITEM_BATCH_SIZES.length; i++) {
+            String placeholders = String.join(", ", Collections.nCopies(ITEM_BATCH_SIZES[i], "?"));
+            ITEM_BATCH_SQL[i] = """
+                SELECT oi.*, mi.name
+                FROM order_items oi
+                JOIN menu_items mi ON oi.menu_item_id = mi.id
+                WHERE oi.order_id IN (""" + placeholders + ")";
+            PRICE_BATCH_SQL[i] = "SELECT id, price FROM menu_items WHERE available = TRUE AND id IN (" + placeholders + ")";
+            SUMMARY_BATCH_SQL[i] = "SELECT * FROM orders WHERE id IN (" + placeholders + ")";
+        }
+    }
+
+    // Keyset on (order_time, id): each page is an index range scan, however deep we are.
+    // Checked against idx_orders_time_id by SchemaMigrator.
+    static final String ORDERS_PAGE_AFTER_SQL = """
+        SELECT * FROM orders
+        WHERE order_time < ? OR (order_time = ? AND id < ?)
+        ORDER BY order_time DESC, id DESC
+        LIMIT ?
+    """;
+
+    // Smallest IN-list shape that fits, or the widest one if nothing does
+    private static int batchShape(int remaining) {
+        for (int i = 0; i < ITEM_BATCH_SIZES.length; i++) {
+            if (ITEM_BATCH_SIZES[i] >= remaining) {
+                return i;
+            }
+        }
+        return ITEM_BATCH_SIZES.length - 1;
+    }
+
+    public int createOrder(int tableId, String customerName) {
+        return CREATE_ORDER.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "INSERT INTO orders (table_id, customer_name) VALUES (?, ?)";
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                pstmt.setInt(1, tableId);
+                pstmt.setString(2, customerName);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    ResultSet rs = pstmt.getGeneratedKeys();
+                    if (rs.next()) {
+                        int orderId = rs.getInt(1);
+                        EventBus.getInstance().publish(RestaurantEvent.orderCreated(orderId, tableId));
+                        return orderId;
+                    }
+                }
+
+            } catch (SQLException e) {
+                CREATE_ORDER.recordError();
+                System.err.println("Error creating order: " + e.getMessage());
+            }
+            return -1;
+        });
+    }
+
+    public boolean addItemToOrder(int orderId, int menuItemId, int quantity) {
+        return ADD_ITEM_TO_ORDER.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    // Price and availability come from the table, not the catalog, which may be a reload behind
+                    Money price = findMenuItemPrice(conn, menuItemId);
+                    if (price == null) {
+                        conn.rollback();
+                        System.err.println("Error adding item to order: menu item " + menuItemId + " not found or unavailable");
+                        return false;
+                    }
+
+                    // Total first: the order row lock then serialises concurrent waiters on this order
+                    if (adjustOrderTotal(conn, orderId, price.times(quantity))) {
+                        // Add item to order
+                        String sql = "INSERT INTO order_items (order_id, menu_item_id, quantity, price) VALUES (?, ?, ?, ?)";
+                        PreparedStatement pstmt = conn.prepareStatement(sql);
+                        pstmt.setInt(1, orderId);
+                        pstmt.setInt(2, menuItemId);
+                        pstmt.setInt(3, quantity);
+                        pstmt.setBigDecimal(4, price.toBigDecimal());
+
+                        if (pstmt.executeUpdate() > 0) {
+                            conn.commit();
+                            EventBus.getInstance().publish(RestaurantEvent.itemAdded(orderId, menuItemId, quantity));
+                            return true;
+                        }
+                    }
+                    conn.rollback();
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+
+            } catch (SQLException e) {
+                ADD_ITEM_TO_ORDER.recordError();
+                System.err.println("Error adding item to order: " + e.getMessage());
+            }
+            return false;
+        });
+    }
+
+    // Adds a whole ticket in one transaction: one price query, one batched insert, one total update
+    public boolean addItemsToOrder(int orderId, List<OrderLine> lines) {
+        return ADD_ITEMS_TO_ORDER.time(() -> {
+            if (lines.isEmpty()) {
+                return true;
+            }
+            try (Connection conn = DatabaseManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    Set<Integer> menuItemIds = new LinkedHashSet<>();
+                    for (OrderLine line : lines) {
+                        menuItemIds.add(line.getMenuItemId());
+                    }
+                    // Read inside the transaction so price changes and unavailable items are seen now, not a reload later
+                    Map<Integer, Money> prices = findMenuItemPrices(conn, new ArrayList<>(menuItemIds));
+
+                    long deltaCents = 0;
+                    String sql = "INSERT INTO order_items (order_id, menu_item_id, quantity, price) VALUES (?, ?, ?, ?)";
+                    PreparedStatement pstmt = conn.prepareStatement(sql);
+                    for (OrderLine line : lines) {
+                        Money price = prices.get(line.getMenuItemId());
+                        if (price == null) {
+                            conn.rollback();
+                            ADD_ITEMS_TO_ORDER.recordError();
+                            System.err.println("Error adding items to order: menu item " + line.getMenuItemId() + " not found or unavailable");
+                            return false;
+                        }
+                        pstmt.setInt(1, orderId);
+                        pstmt.setInt(2, line.getMenuItemId());
+                        pstmt.setInt(3, line.getQuantity());
+                        pstmt.setBigDecimal(4, price.toBigDecimal());
+                        pstmt.addBatch();
+                        deltaCents = Math.addExact(deltaCents, price.multiplyCents(line.getQuantity()));
+                    }
+
+                    if (!adjustOrderTotal(conn, orderId, Money.ofCents(deltaCents))) {
+                        conn.rollback();
+                        return false;
+                    }
+                    pstmt.executeBatch();
+                    conn.commit();
+
+                    for (OrderLine line : lines) {
+                        EventBus.getInstance().publish(RestaurantEvent.itemAdded(orderId, line.getMenuItemId(), line.getQuantity()));
+                    }
+                    return true;
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+
+            } catch (SQLException e) {
+                ADD_ITEMS_TO_ORDER.recordError();
+                System.err.println("Error adding items to order: " + e.getMessage());
+            }
+            return false;
+        });
+    }
+
+    private Map<Integer, Money> findMenuItemPrices(Connection conn, List<Integer> menuItemIds) throws SQLException {
+        Map<Integer, Money> prices = new HashMap<>();
+        int offset = 0;
+        while (offset < menuItemIds.size()) {
+            int shape = batchShape(menuItemIds.size() - offset);
+            int width = ITEM_BATCH_SIZES[shape];
+            int count = Math.min(width, menuItemIds.size() - offset);
+
+            PreparedStatement pstmt = conn.prepareStatement(PRICE_BATCH_SQL[shape]);
+            for (int i = 0; i < width; i++) {
+                pstmt.setInt(i + 1, menuItemIds.get(offset + Math.min(i, count - 1)));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                prices.put(rs.getInt("id"), Money.of(rs.getBigDecimal("price")));
+            }
+            pstmt.close();
+            offset += count;
+        }
+        return prices;
+    }
+
+    private Money findMenuItemPrice(Connection conn, int menuItemId) throws SQLException {
+        String getPriceSql = "SELECT price FROM menu_items WHERE id = ? AND available = TRUE";
+        PreparedStatement getPriceStmt = conn.prepareStatement(getPriceSql);
+        getPriceStmt.setInt(1, menuItemId);
+        ResultSet rs = getPriceStmt.executeQuery();
+        return rs.next() ? Money.of(rs.getBigDecimal("price")) : null;
+    }
+
+    public boolean removeItemFromOrder(int orderItemId) {
+        return REMOVE_ITEM_FROM_ORDER.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    // Lock the order row before the line, in the same order as the add paths
+                    String lockSql = "SELECT o.id FROM orders o JOIN order_items oi ON oi.order_id = o.id WHERE oi.id = ? FOR UPDATE";
+                    PreparedStatement lockStmt = conn.prepareStatement(lockSql);
+                    lockStmt.setInt(1, orderItemId);
+                    lockStmt.executeQuery();
+
+                    // Re-read the locked line so a concurrent removal cannot subtract it twice
+                    String getLineSql = "SELECT order_id, price, quantity FROM order_items WHERE id = ?";
+                    PreparedStatement getLineStmt = conn.prepareStatement(getLineSql);
+                    getLineStmt.setInt(1, orderItemId);
+                    ResultSet rs = getLineStmt.executeQuery();
+
+                    if (rs.next()) {
+                        int orderId = rs.getInt("order_id");
+                        Money lineTotal = Money.of(rs.getBigDecimal("price")).times(rs.getInt("quantity"));
+
+                        String sql = "DELETE FROM order_items WHERE id = ?";
+                        PreparedStatement pstmt = conn.prepareStatement(sql);
+                        pstmt.setInt(1, orderItemId);
+
+                        if (pstmt.executeUpdate() > 0 && adjustOrderTotal(conn, orderId, lineTotal.negate())) {
+                            conn.commit();
+                            EventBus.getInstance().publish(RestaurantEvent.itemRemoved(orderId));
+                            return true;
+                        }
+                    }
+                    conn.rollback();
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+
+            } catch (SQLException e) {
+                REMOVE_ITEM_FROM_ORDER.recordError();
+                System.err.println("Error removing item from order: " + e.getMessage());
+            }
+            return false;
+        });
+    }
+
+    // Applies a line change to the stored total inside the caller's transaction
+    private boolean adjustOrderTotal(Connection conn, int orderId, Money delta) throws SQLException {
+        String sql = "UPDATE orders SET total_amount = total_amount + ? WHERE id = ?";
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        pstmt.setBigDecimal(1, delta.toBigDecimal());
+        pstmt.setInt(2, orderId);
+        return pstmt.executeUpdate() > 0;
+    }
+
+    public List<Order> getAllOrders() {
+        return GET_ALL_ORDERS.time(() -> {
+            List<Order> orders = new ArrayList<>();
+            try (Connection conn = DatabaseManager.getConnection()) {
+                orders = loadOrderSummaries(conn);
+
+                // Load order items for every order in a handful of IN-list queries
+                List<Integer> orderIds = new ArrayList<>(orders.size());
+                for (Order order : orders) {
+                    orderIds.add(order.getId());
+                }
+                Map<Integer, List<OrderItem>> itemsByOrder = loadOrderItems(conn, orderIds);
+                for (Order order : orders) {
+                    order.setItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>()));
+                }
+
+            } catch (SQLException e) {
+                GET_ALL_ORDERS.recordError();
+                System.err.println("Error fetching orders: " + e.getMessage());
+            }
+            return orders;
+        });
+    }
+
+    // Orders without their line items, for list views
+    public List<Order> getAllOrderSummaries() {
+        return GET_ALL_ORDER_SUMMARIES.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                return loadOrderSummaries(conn);
+            } catch (SQLException e) {
+                GET_ALL_ORDER_SUMMARIES.recordError();
+                System.err.println("Error fetching order summaries: " + e.getMessage());
+            }
+            return new ArrayList<>();
+        });
+    }
+
+    // Orders without items for just the given ids, e.g. to refresh rows that changed
+    public List<Order> getOrderSummaries(Collection<Integer> orderIds) {
+        return GET_ORDER_SUMMARIES.time(() -> {
+            List<Order> orders = new ArrayList<>();
+            List<Integer> ids = new ArrayList<>(orderIds);
+            try (Connection conn = DatabaseManager.getConnection()) {
+                int offset = 0;
+                while (offset < ids.size()) {
+                    int shape = batchShape(ids.size() - offset);
+                    int width = ITEM_BATCH_SIZES[shape];
+                    int count = Math.min(width, ids.size() - offset);
+
+                    PreparedStatement pstmt = conn.prepareStatement(SUMMARY_BATCH_SQL[shape]);
+                    for (int i = 0; i < width; i++) {
+                        pstmt.setInt(i + 1, ids.get(offset + Math.min(i, count - 1)));
+                    }
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        orders.add(mapOrder(rs));
+                    }
+                    pstmt.close();
+                    offset += count;
+                }
+
+            } catch (SQLException e) {
+                GET_ORDER_SUMMARIES.recordError();
+                System.err.println("Error fetching order summaries: " + e.getMessage());
+            }
+            return orders;
+        });
+    }
+
+    private List<Order> loadOrderSummaries(Connection conn) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+        String sql = "SELECT * FROM orders ORDER BY order_time DESC";
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        ResultSet rs = pstmt.executeQuery();
+
+        while (rs.next()) {
+            orders.add(mapOrder(rs));
+        }
+        return orders;
+    }
+
+    private static Order mapOrder(ResultSet rs) throws SQLException {
+        return new Order(
+                rs.getInt("id"),
+                rs.getInt("table_id"),
+                rs.getString("customer_name"),
+                rs.getString("status"),
+                Money.of(rs.getBigDecimal("total_amount")),
+                rs.getTimestamp("order_time").toLocalDateTime()
+        );
+    }
+
+    private static OrderItem mapOrderItem(ResultSet rs) throws SQLException {
+        return new OrderItem(
+                rs.getInt("id"),
+                rs.getInt("order_id"),
+                rs.getInt("menu_item_id"),
+                rs.getString("name"),
+                rs.getInt("quantity"),
+                Money.of(rs.getBigDecimal("price"))
+        );
+    }
+
+    // One page of orders, newest first; pass the previous page to continue after it
+    public OrderPage getOrdersPage(OrderPage after, int pageSize) {
+        return GET_ORDERS_PAGE.time(() -> {
+            List<Order> orders = new ArrayList<>();
+            try (Connection conn = DatabaseManager.getConnection()) {
+                PreparedStatement pstmt;
+                if (after == null || after.getOrders().isEmpty()) {
+                    String sql = "SELECT * FROM orders ORDER BY order_time DESC, id DESC LIMIT ?";
+                    pstmt = conn.prepareStatement(sql);
+                    pstmt.setInt(1, pageSize + 1);
+                } else {
+                    Timestamp lastTime = Timestamp.valueOf(after.getLastOrderTime());
+                    pstmt = conn.prepareStatement(ORDERS_PAGE_AFTER_SQL);
+                    pstmt.setTimestamp(1, lastTime);
+                    pstmt.setTimestamp(2, lastTime);
+                    pstmt.setInt(3, after.getLastOrderId());
+                    pstmt.setInt(4, pageSize + 1);
+                }
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    orders.add(mapOrder(rs));
+                }
+
+            } catch (SQLException e) {
+                GET_ORDERS_PAGE.recordError();
+                System.err.println("Error fetching orders page: " + e.getMessage());
+            }
+
+            // One extra row tells us whether another page exists
+            boolean hasMore = orders.size() > pageSize;
+            if (hasMore) {
+                orders.remove(orders.size() - 1);
+            }
+            return new OrderPage(orders, hasMore);
+        });
+    }
+
+    // Streams every order, newest first, without holding the result set in memory
+    public int streamOrders(int fetchSize, Consumer<Order> consumer) {
+        return STREAM_ORDERS.time(() -> {
+            int count = 0;
+            String sql = "SELECT * FROM orders ORDER BY order_time DESC, id DESC";
+            try (Connection conn = DatabaseManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(fetchSize);
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    consumer.accept(mapOrder(rs));
+                    count++;
+                }
+
+            } catch (SQLException e) {
+                STREAM_ORDERS.recordError();
+                System.err.println("Error streaming orders: " + e.getMessage());
+            }
+            return count;
+        });
+    }
+
+    public List<OrderItem> getOrderItems(int orderId) {
+        return GET_ORDER_ITEMS.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                return getOrderItems(conn, orderId);
+            } catch (SQLException e) {
+                GET_ORDER_ITEMS.recordError();
+                System.err.println("Error fetching order items: " + e.getMessage());
+            }
+            return new ArrayList<>();
+        });
+    }
+
+    private List<OrderItem> getOrderItems(Connection conn, int orderId) throws SQLException {
+        List<OrderItem> items = new ArrayList<>();
+        String sql = """
+            SELECT oi.*, mi.name
+            FROM order_items oi
+            JOIN menu_items mi ON oi.menu_item_id = mi.id
+            WHERE oi.order_id = ?
+        """;
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        pstmt.setInt(1, orderId);
+        ResultSet rs = pstmt.executeQuery();
+
+        while (rs.next()) {
+            items.add(mapOrderItem(rs));
+        }
+        return items;
+    }
+
+    // Items for many orders at once, keyed by order id
+    public Map<Integer, List<OrderItem>> getOrderItemsForOrders(Collection<Integer> orderIds) {
+        return GET_ORDER_ITEMS_FOR_ORDERS.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                return loadOrderItems(conn, new ArrayList<>(orderIds));
+            } catch (SQLException e) {
+                GET_ORDER_ITEMS_FOR_ORDERS.recordError();
+                System.err.println("Error fetching order items: " + e.getMessage());
+            }
+            return new HashMap<>();
+        });
+    }
+
+    private Map<Integer, List<OrderItem>> loadOrderItems(Connection conn, List<Integer> orderIds) throws SQLException {
+        Map<Integer, List<OrderItem>> itemsByOrder = new HashMap<>();
+        int offset = 0;
+        while (offset < orderIds.size()) {
+            // Round the IN-list up to a fixed width so the statement cache sees only a few shapes
+            int shape = batchShape(orderIds.size() - offset);
+            int width = ITEM_BATCH_SIZES[shape];
+            int count = Math.min(width, orderIds.size() - offset);
+
+            PreparedStatement pstmt = conn.prepareStatement(ITEM_BATCH_SQL[shape]);
+            for (int i = 0; i < width; i++) {
+                // Pad unused slots with the last id; duplicates in an IN-list are harmless
+                pstmt.setInt(i + 1, orderIds.get(offset + Math.min(i, count - 1)));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                OrderItem item = mapOrderItem(rs);
+                itemsByOrder.computeIfAbsent(item.getOrderId(), k -> new ArrayList<>()).add(item);
+            }
+            pstmt.close();
+            offset += count;
+        }
+        return itemsByOrder;
+    }
+
+    public boolean updateOrderStatus(int orderId, String status) {
+        return UPDATE_ORDER_STATUS.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "UPDATE orders SET status = ? WHERE id = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setString(1, status);
+                pstmt.setInt(2, orderId);
+
+                int affected = pstmt.executeUpdate();
+                if (affected > 0) {
+                    EventBus.getInstance().publish(RestaurantEvent.orderStatusChanged(orderId, status));
+                }
+                return affected > 0;
+
+            } catch (SQLException e) {
+                UPDATE_ORDER_STATUS.recordError();
+                System.err.println("Error updating order status: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    public Order getOrderById(int orderId) {
+        return GET_ORDER_BY_ID.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "SELECT * FROM orders WHERE id = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setInt(1, orderId);
+                ResultSet rs = pstmt.executeQuery();
+
+                if (rs.next()) {
+                    Order order = mapOrder(rs);
+                    order.setItems(getOrderItems(conn, order.getId()));
+                    return order;
+                }
+
+            } catch (SQLException e) {
+                GET_ORDER_BY_ID.recordError();
+                System.err.println("Error fetching order: " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    // Async variants
+    public CompletableFuture<Integer> createOrderAsync(int tableId, String customerName) {
+        return ServiceExecutor.supply(() -> createOrder(tableId, customerName));
+    }
+
+    public CompletableFuture<Boolean> addItemToOrderAsync(int orderId, int menuItemId, int quantity) {
+        return ServiceExecutor.supply(() -> addItemToOrder(orderId, menuItemId, quantity));
+    }
+
+    public CompletableFuture<Boolean> addItemsToOrderAsync(int orderId, List<OrderLine> lines) {
+        return ServiceExecutor.supply(() -> addItemsToOrder(orderId, lines));
+    }
+
+    public CompletableFuture<Boolean> removeItemFromOrderAsync(int orderItemId) {
+        return ServiceExecutor.supply(() -> removeItemFromOrder(orderItemId));
+    }
+
+    public CompletableFuture<List<Order>> getAllOrdersAsync() {
+        return ServiceExecutor.supply(this::getAllOrders);
+    }
+
+    public CompletableFuture<List<Order>> getAllOrderSummariesAsync() {
+        return ServiceExecutor.supply(this::getAllOrderSummaries);
+    }
+
+    public CompletableFuture<List<Order>> getOrderSummariesAsync(Collection<Integer> orderIds) {
+        return ServiceExecutor.supply(() -> getOrderSummaries(orderIds));
+    }
+
+    public CompletableFuture<OrderPage> getOrdersPageAsync(OrderPage after, int pageSize) {
+        return ServiceExecutor.supply(() -> getOrdersPage(after, pageSize));
+    }
+
+    public CompletableFuture<Integer> streamOrdersAsync(int fetchSize, Consumer<Order> consumer) {
+        return ServiceExecutor.supply(() -> streamOrders(fetchSize, consumer));
+    }
+
+    public CompletableFuture<List<OrderItem>> getOrderItemsAsync(int orderId) {
+        return ServiceExecutor.supply(() -> getOrderItems(orderId));
+    }
+
+    public CompletableFuture<Map<Integer, List<OrderItem>>> getOrderItemsForOrdersAsync(Collection<Integer> orderIds) {
+        return ServiceExecutor.supply(() -> getOrderItemsForOrders(orderIds));
+    }
+
+    public CompletableFuture<Boolean> updateOrderStatusAsync(int orderId, String status) {
+        return ServiceExecutor.supply(() -> updateOrderStatus(orderId, status));
+    }
+
+    public CompletableFuture<Order> getOrderByIdAsync(int orderId) {
+        return ServiceExecutor.supply(() -> getOrderById(orderId));
+    }
+}
+
+// Order Total Verifier: reconciles stored order totals against their line items
+class OrderTotalVerifier {
+    // Every terminal schedules a verifier; the lock lets only one of them scan at a time
+    private static final String LOCK_NAME = "restaurant.order_total_verifier";
+
+    private final int batchSize;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong ordersChecked = new AtomicLong();
+    private final AtomicLong ordersRepaired = new AtomicLong();
+
+    public OrderTotalVerifier(int batchSize, long intervalMillis) {
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-total-verifier");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            // An exception escaping here would cancel every later run
+            try {
+                verifyAll();
+            } catch (RuntimeException e) {
+                System.err.println("Error verifying order totals: " + e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // One full pass over the orders table, an id range at a time; returns the number of totals repaired.
+    // Skipped when another terminal is already running a pass.
+    public int verifyAll() {
+        int repaired = 0;
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (!acquireLock(conn)) {
+                return 0;
+            }
+            try {
+                PreparedStatement maxStmt = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM orders");
+                ResultSet rs = maxStmt.executeQuery();
+                int maxId = rs.next() ? rs.getInt(1) : 0;
+
+                for (int fromId = 0; fromId < maxId && !Thread.currentThread().isInterrupted(); fromId += batchSize) {
+                    repaired += verifyBatch(conn, fromId, fromId + batchSize);
+                }
+            } finally {
+                releaseLock(conn);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error verifying order totals: " + e.getMessage());
+        }
+        if (repaired > 0) {
+            System.err.println("Order total verifier repaired " + repaired + " drifted order total(s)");
+        }
+        return repaired;
+    }
+
+    private int verifyBatch(Connection conn, int afterId, int upToId) throws SQLException {
+        String sql = """
+            SELECT o.id, o.total_amount, COALESCE(SUM(oi.price * oi.quantity), 0) AS item_total
+            FROM orders o
+            LEFT JOIN order_items oi ON oi.order_id = o.id
+            WHERE o.id > ? AND o.id <= ?
+            GROUP BY o.id, o.total_amount
+        """;
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        pstmt.setInt(1, afterId);
+        pstmt.setInt(2, upToId);
+        ResultSet rs = pstmt.executeQuery();
+
+        List<Integer> drifted = new ArrayList<>();
+        while (rs.next()) {
+            ordersChecked.incrementAndGet();
+            if (rs.getBigDecimal("total_amount").compareTo(rs.getBigDecimal("item_total")) != 0) {
+                drifted.add(rs.getInt("id"));
+            }
+        }
+        if (drifted.isEmpty()) {
+            return 0;
+        }
+
+        // Recompute from the lines in the UPDATE itself, so a line committed since the scan is counted
+        conn.setAutoCommit(false);
+        try {
+            String repairSql = "UPDATE orders SET total_amount = (SELECT COALESCE(SUM(price * quantity), 0) FROM order_items WHERE order_id = ?) WHERE id = ?";
+            PreparedStatement repairStmt = conn.prepareStatement(repairSql);
+            for (int orderId : drifted) {
+                repairStmt.setInt(1, orderId);
+                repairStmt.setInt(2, orderId);
+                repairStmt.addBatch();
+            }
+            repairStmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        ordersRepaired.addAndGet(drifted.size());
+        return drifted.size();
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)");
+        pstmt.setString(1, LOCK_NAME);
+        ResultSet rs = pstmt.executeQuery();
+        return rs.next() && rs.getInt(1) == 1;
+    }
+
+    private static void releaseLock(Connection conn) {
+        try {
+            PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)");
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery();
+        } catch (SQLException e) {
+            System.err.println("Error releasing order total verifier lock: " + e.getMessage());
+        }
+    }
+
+    public long getOrdersChecked() { return ordersChecked.get(); }
+    public long getOrdersRepaired() { return ordersRepaired.get(); }
+}
+
+// Kitchen Ticket
+class KitchenTicket {
+    enum Kind { ITEM_ADDED, STATUS_CHANGED }
+
+    private final Kind kind;
+    private final int orderId;
+    private final int menuItemId;
+    private final String itemName;
+    private final String category;
+    private final int quantity;
+    private final String status;
+    private final long createdNanos;
+
+    public KitchenTicket(Kind kind, int orderId, int menuItemId, String itemName, String category,
+                         int quantity, String status, long createdNanos) {
+        this.kind = kind;
+        this.orderId = orderId;
+        this.menuItemId = menuItemId;
+        this.itemName = itemName;
+        this.category = category;
+        this.quantity = quantity;
+        this.status = status;
+        this.createdNanos = createdNanos;
+    }
+
+    public Kind getKind() { return kind; }
+    public int getOrderId() { return orderId; }
+    public int getMenuItemId() { return menuItemId; }
+    public String getItemName() { return itemName; }
+    public String getCategory() { return category; }
+    public int getQuantity() { return quantity; }
+    public String getStatus() { return status; }
+    public long getCreatedNanos() { return createdNanos; }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.ITEM_ADDED) {
+            return String.format("Order #%d: %dx %s", orderId, quantity, itemName);
+        }
+        return String.format("Order #%d: %s", orderId, status);
+    }
+}
+
+// Ticket Ring Buffer: single producer, any number of independent readers, no locks.
+// The producer never waits; a reader that falls a whole ring behind skips ahead and counts what it missed.
+class TicketRingBuffer {
+    private final AtomicReferenceArray<Slot> slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private long nextSequence;
+
+    public TicketRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    private static final class Slot {
+        final long sequence;
+        final KitchenTicket ticket;
+
+        Slot(long sequence, KitchenTicket ticket) {
+            this.sequence = sequence;
+            this.ticket = ticket;
+        }
+    }
+
+    // Must only ever be called from one thread
+    public void publish(KitchenTicket ticket) {
+        long sequence = nextSequence++;
+        slots.lazySet((int) (sequence & mask), new Slot(sequence, ticket));
+        // Ordered store: a reader that sees the cursor also sees the slot
+        cursor.lazySet(sequence);
+    }
+
+    public int getCapacity() { return mask + 1; }
+    public long getPublishedCount() { return cursor.get() + 1; }
+
+    // Starts at the next ticket published from now on
+    public Reader newReader() {
+        return new Reader(cursor.get() + 1);
+    }
+
+    final class Reader {
+        private long next;
+        private long missed;
+
+        private Reader(long next) {
+            this.next = next;
+        }
+
+        // Copies up to max waiting tickets into out without blocking; returns how many
+        public int drainTo(List<KitchenTicket> out, int max) {
+            int count = 0;
+            long available = cursor.get();
+            while (next <= available && count < max) {
+                long oldest = available - mask;
+                if (next < oldest) {
+                    missed += oldest - next;
+                    next = oldest;
+                }
+                Slot slot = slots.get((int) (next & mask));
+                if (slot == null || slot.sequence != next) {
+                    // Overwritten while we were reading: look at the cursor again
+                    available = cursor.get();
+                    continue;
+                }
+                out.add(slot.ticket);
+                next++;
+                count++;
+            }
+            return count;
+        }
+
+        // Waits up to the timeout for at least one ticket: a short spin, then brief parks
+        public int awaitDrainTo(List<KitchenTicket> out, int max, long timeout, TimeUnit unit) {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            int spins = 0;
+            while (true) {
+                int count = drainTo(out, max);
+                if (count > 0 || System.nanoTime() - deadline >= 0) {
+                    return count;
+                }
+                if (++spins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(50_000);
+                }
+            }
+        }
+
+        public long getLag() { return Math.max(0, cursor.get() + 1 - next); }
+        public long getMissedCount() { return missed; }
+    }
+}
+
+// Kitchen Display: turns new order lines and status changes into tickets for the station screens.
+// Lines are polled from order_items, so items added on any terminal reach every kitchen screen.
+// Status changes come from the in-process event bus: orders carry no change timestamp to poll on,
+// so a status set on another terminal does not show up here.
+class KitchenDisplay {
+    private static final KitchenDisplay INSTANCE = new KitchenDisplay(
+            Integer.getInteger("restaurant.kitchen.ringSize", 4096),
+            Long.getLong("restaurant.kitchen.pollMillis", 1000L));
+
+    private static final int POLL_BATCH = 500;
+    // Ids below the high-water mark that are re-read each poll, for lines that commit out of id order
+    private static final int LOOKBACK_IDS = 256;
+
+    private final TicketRingBuffer ring;
+    private final long pollMillis;
+    // Single thread: it runs every poll and every bus delivery, which makes it the ring's only producer
+    private final ScheduledExecutorService feeder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "kitchen-feed");
+        t.setDaemon(true);
+        return t;
+    });
+    private boolean started;
+
+    // Feeder thread only
+    private int lastItemId = -1;
+    private final Set<Integer> recentItemIds = Collections.newSetFromMap(new LinkedHashMap<Integer, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+            return size() > LOOKBACK_IDS * 4;
+        }
+    });
+
+    public static KitchenDisplay getInstance() {
+        return INSTANCE;
+    }
+
+    KitchenDisplay(int ringSize, long pollMillis) {
+        this.ring = new TicketRingBuffer(ringSize);
+        this.pollMillis = pollMillis;
+    }
+
+    // Starts polling the first time a station opens; tickets from before that are not replayed
+    private synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        EventBus.getInstance().subscribe(
+                EnumSet.of(RestaurantEvent.Type.ITEM_ADDED, RestaurantEvent.Type.ORDER_STATUS_CHANGED),
+                events -> feeder.execute(() -> onEvents(events)));
+        feeder.scheduleWithFixedDelay(() -> {
+            try {
+                pollItems();
+            } catch (RuntimeException e) {
+                System.err.println("Error polling kitchen tickets: " + e);
+            }
+        }, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void onEvents(List<RestaurantEvent> events) {
+        boolean itemsAdded = false;
+        for (RestaurantEvent event : events) {
+            if (event.getType() == RestaurantEvent.Type.ITEM_ADDED) {
+                itemsAdded = true;
+            } else {
+                ring.publish(new KitchenTicket(KitchenTicket.Kind.STATUS_CHANGED, event.getOrderId(), 0, null, null,
+                        0, event.getStatus(), System.nanoTime()));
+            }
+        }
+        // Lines added here are committed already: fetch them now rather than at the next poll
+        if (itemsAdded) {
+            pollItems();
+        }
+    }
+
+    private void pollItems() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (lastItemId < 0) {
+                ResultSet rs = conn.createStatement().executeQuery("SELECT COALESCE(MAX(id), 0) FROM order_items");
+                int maxId = rs.next() ? rs.getInt(1) : 0;
+                // Mark the lines the next poll's lookback will re-read as seen, so they are not sent as new
+                PreparedStatement seen = conn.prepareStatement("SELECT id FROM order_items WHERE id > ? ORDER BY id");
+                seen.setInt(1, Math.max(0, maxId - LOOKBACK_IDS));
+                rs = seen.executeQuery();
+                while (rs.next()) {
+                    recentItemIds.add(rs.getInt("id"));
+                }
+                lastItemId = maxId;
+                return;
+            }
+            String sql = """
+                SELECT oi.id, oi.order_id, oi.menu_item_id, oi.quantity, mi.name, mi.category
+                FROM order_items oi
+                JOIN menu_items mi ON oi.menu_item_id = mi.id
+                WHERE oi.id > ?
+                ORDER BY oi.id
+                LIMIT ?
+            """;
+            PreparedStatement pstmt = conn.prepareStatement(sql);
+            int afterId = Math.max(0, lastItemId - LOOKBACK_IDS);
+            int rows;
+            do {
+                pstmt.setInt(1, afterId);
+                pstmt.setInt(2, POLL_BATCH);
+                ResultSet rs = pstmt.executeQuery();
+                rows = 0;
+                while (rs.next()) {
+                    rows++;
+                    int id = rs.getInt("id");
+                    afterId = id;
+                    if (!recentItemIds.add(id)) {
+                        continue;
+                    }
+                    lastItemId = Math.max(lastItemId, id);
+                    ring.publish(new KitchenTicket(KitchenTicket.Kind.ITEM_ADDED, rs.getInt("order_id"),
+                            rs.getInt("menu_item_id"), rs.getString("name"), rs.getString("category"),
+                            rs.getInt("quantity"), null, System.nanoTime()));
+                }
+            } while (rows == POLL_BATCH);
+
+        } catch (SQLException e) {
+            System.err.println("Error polling kitchen tickets: " + e.getMessage());
+        }
+    }
+
+    // A screen sees every ticket published after it opened that matches its filter
+    public KitchenStation openStation(String name, Predicate<KitchenTicket> filter) {
+        KitchenStation station = new KitchenStation(name, ring.newReader(), filter);
+        start();
+        return station;
+    }
+
+    public TicketRingBuffer getRing() {
+        return ring;
+    }
+}
+
+// Kitchen Station: one screen's view of the ticket stream
+class KitchenStation {
+    private final String name;
+    private final TicketRingBuffer.Reader reader;
+    private final Predicate<KitchenTicket> filter;
+    private final List<KitchenTicket> scratch = new ArrayList<>();
+
+    KitchenStation(String name, TicketRingBuffer.Reader reader, Predicate<KitchenTicket> filter) {
+        this.name = name;
+        this.reader = reader;
+        this.filter = filter;
+    }
+
+    public List<KitchenTicket> poll(int max) {
+        scratch.clear();
+        reader.drainTo(scratch, max);
+        List<KitchenTicket> tickets = new ArrayList<>(scratch.size());
+        for (KitchenTicket ticket : scratch) {
+            if (filter.test(ticket)) {
+                tickets.add(ticket);
+            }
+        }
+        return tickets;
+    }
+
+    public String getName() { return name; }
+    public long getMissedCount() { return reader.getMissedCount(); }
+}
+
+// Tax Table: one jurisdiction's rules compiled into rates indexed by menu category.
+// Slot 0 holds the jurisdiction's default rate for categories without a rule of their own.
+class TaxTable {
+    private final String jurisdiction;
+    private final String label;
+    private final boolean inclusive;
+    private final Map<String, Integer> categoryIndex;
+    private final long[] basisPoints;
+
+    TaxTable(String jurisdiction, String label, boolean inclusive, long defaultBasisPoints, Map<String, Long> categoryRates) {
+        this.jurisdiction = jurisdiction;
+        this.inclusive = inclusive;
+        this.categoryIndex = new HashMap<>();
+        this.basisPoints = new long[categoryRates.size() + 1];
+        this.basisPoints[0] = defaultBasisPoints;
+        int index = 1;
+        for (Map.Entry<String, Long> rate : categoryRates.entrySet()) {
+            categoryIndex.put(rate.getKey().toLowerCase(Locale.ROOT), index);
+            basisPoints[index++] = rate.getValue();
+        }
+        this.label = label != null ? label : defaultLabel();
+    }
+
+    // "Tax (8%)" when every category pays the same rate, plain "Tax" otherwise
+    private String defaultLabel() {
+        for (long rate : basisPoints) {
+            if (rate != basisPoints[0]) {
+                return inclusive ? "Tax (included)" : "Tax";
+            }
+        }
+        String percent = BigDecimal.valueOf(basisPoints[0], 2).stripTrailingZeros().toPlainString();
+        return "Tax (" + percent + "%" + (inclusive ? " included" : "") + ")";
+    }
+
+    public String getJurisdiction() { return jurisdiction; }
+    public String getLabel() { return label; }
+    public boolean isInclusive() { return inclusive; }
+
+    public int indexOf(String category) {
+        if (category == null) {
+            return 0;
+        }
+        Integer index = categoryIndex.get(category.toLowerCase(Locale.ROOT));
+        return index != null ? index : 0;
+    }
+
+    public long getBasisPoints(String category) {
+        return basisPoints[indexOf(category)];
+    }
+
+    public Tally newTally() {
+        return new Tally();
+    }
+
+    // Sums line amounts per rate slot; tax is then rounded once per slot rather than per line
+    final class Tally {
+        private final long[] cents = new long[basisPoints.length];
+
+        public void add(String category, long lineCents) {
+            int index = indexOf(category);
+            cents[index] = Math.addExact(cents[index], lineCents);
+        }
+
+        public Money[] result() {
+            long subtotal = 0;
+            long tax = 0;
+            for (int i = 0; i < cents.length; i++) {
+                if (cents[i] == 0) {
+                    continue;
+                }
+                long slotTax = inclusive
+                        // Prices already contain the tax: back it out of the gross amount
+                        ? cents[i] - Money.scaleHalfUp(cents[i], 10_000, 10_000 + basisPoints[i])
+                        : Money.scaleHalfUp(cents[i], basisPoints[i], 10_000);
+                subtotal += inclusive ? cents[i] - slotTax : cents[i];
+                tax += slotTax;
+            }
+            return new Money[] {Money.ofCents(subtotal), Money.ofCents(tax), Money.ofCents(subtotal + tax)};
+        }
+    }
+}
+
+// Tax Engine: loads tax rules from a properties file and swaps in a new compiled table when it changes.
+//
+//   <jurisdiction>.rate=8.25                 default rate in percent
+//   <jurisdiction>.mode=exclusive            or inclusive when menu prices already contain tax
+//   <jurisdiction>.label=Sales Tax           optional bill label
+//   <jurisdiction>.category.Beverages=10     per-category rate in percent
+//
+// Keys under "default." apply to every jurisdiction unless overridden.
+class TaxEngine {
+    private static final TaxEngine INSTANCE = new TaxEngine(
+            System.getProperty("restaurant.tax.rules", "tax-rules.properties"),
+            System.getProperty("restaurant.tax.jurisdiction", "default"),
+            Long.getLong("restaurant.tax.checkMillis", 5000));
+
+    private static final TaxTable BUILT_IN = new TaxTable("default", null, false, 800, Collections.emptyMap());
+
+    private final java.io.File rulesFile;
+    private final String jurisdiction;
+    private final long checkMillis;
+    private final AtomicReference<TaxTable> current = new AtomicReference<>(BUILT_IN);
+    private final AtomicLong nextCheck = new AtomicLong();
+    private volatile long loadedModified = -1;
+
+    public static TaxEngine getInstance() {
+        return INSTANCE;
+    }
+
+    TaxEngine(String rulesPath, String jurisdiction, long checkMillis) {
+        this.rulesFile = new java.io.File(rulesPath);
+        this.jurisdiction = jurisdiction;
+        this.checkMillis = checkMillis;
+    }
+
+    // Billing calls this per bill; the file is looked at no more than once per check interval
+    public TaxTable current() {
+        long now = System.currentTimeMillis();
+        long due = nextCheck.get();
+        if (now >= due && nextCheck.compareAndSet(due, now + checkMillis)) {
+            reloadIfChanged();
+        }
+        return current.get();
+    }
+
+    public void reloadIfChanged() {
+        long modified = rulesFile.exists() ? rulesFile.lastModified() : 0;
+        if (modified == loadedModified) {
+            return;
+        }
+        if (modified == 0) {
+            current.set(BUILT_IN);
+            loadedModified = 0;
+            return;
+        }
+        try (java.io.Reader reader = new java.io.FileReader(rulesFile)) {
+            Properties rules = new Properties();
+            rules.load(reader);
+            current.set(compile(rules, jurisdiction));
+            loadedModified = modified;
+        } catch (java.io.IOException | RuntimeException e) {
+            // Keep billing with the last good table
+            System.err.println("Error loading tax rules: " + e.getMessage());
+        }
+    }
+
+    static TaxTable compile(Properties rules, String jurisdiction) {
+        String label = setting(rules, jurisdiction, "label");
+        String mode = setting(rules, jurisdiction, "mode");
+        String rate = setting(rules, jurisdiction, "rate");
+        long defaultRate = rate != null ? toBasisPoints(rate) : 800;
+
+        Map<String, Long> categoryRates = new LinkedHashMap<>();
+        for (String scope : new String[] {"default", jurisdiction}) {
+            String prefix = scope + ".category.";
+            for (String key : rules.stringPropertyNames()) {
+                if (key.startsWith(prefix)) {
+                    categoryRates.put(key.substring(prefix.length()), toBasisPoints(rules.getProperty(key)));
+                }
+            }
+        }
+        return new TaxTable(jurisdiction, label, "inclusive".equalsIgnoreCase(mode), defaultRate, categoryRates);
+    }
+
+    private static String setting(Properties rules, String jurisdiction, String name) {
+        String value = rules.getProperty(jurisdiction + "." + name, rules.getProperty("default." + name));
+        return value != null ? value.trim() : null;
+    }
+
+    private static long toBasisPoints(String percent) {
+        return new BigDecimal(percent.trim()).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
+
+// Latency Histogram: lock-free log-linear buckets for nanosecond timings.
+// Values below 32 are exact; above that each power of two is split into 32 steps (about 3% error).
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // Largest value that lands in the bucket, so percentiles never under-report
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public long getCount() { return count.sum(); }
+    public long getMax() { return max.get(); }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // quantile in [0, 1], e.g. 0.99
+    public long getValueAtQuantile(double quantile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+}
+
+// Billing Service
+class BillingService {
+    private static final OperationStats GENERATE_BILL = ServiceMetrics.operation("BillingService.generateBill");
+    private static final OperationStats GET_BILL_BY_ORDER_ID = ServiceMetrics.operation("BillingService.getBillByOrderId");
+    private static final OperationStats MARK_BILL_AS_PAID = ServiceMetrics.operation("BillingService.markBillAsPaid");
+
+    // Line amounts per menu category, so the tax table is consulted once per category, not per rule
+    private static final String CATEGORY_TOTALS_SQL = """
+            SELECT mi.category, SUM(oi.price * oi.quantity) AS line_total
+            FROM order_items oi
+            JOIN menu_items mi ON oi.menu_item_id = mi.id
+            WHERE oi.order_id = ?
+            GROUP BY mi.category""";
+
+    public Bill generateBill(int orderId) {
+        return GENERATE_BILL.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                TaxTable taxTable = TaxEngine.getInstance().current();
+                Money subtotal;
+                Money tax;
+                Money total;
+                // Set here rather than defaulted, so the rollup files it under the same hour as the bill
+                LocalDateTime billTime = LocalDateTime.now().withNano(0);
+                long[] delta;
+                int billId = 0;
+                conn.setAutoCommit(false);
+                try {
+                    // Lock the order first: the close job takes the same row lock, and adding a line updates the
+                    // order's total, so no line can slip in between the totals below and the bill
+                    PreparedStatement lockStmt = conn.prepareStatement("SELECT id FROM orders WHERE id = ? FOR UPDATE");
+                    lockStmt.setInt(1, orderId);
+                    if (!lockStmt.executeQuery().next()) {
+                        conn.rollback();
+                        return null;
+                    }
+
+                    TaxTable.Tally tally = taxTable.newTally();
+                    PreparedStatement linesStmt = conn.prepareStatement(CATEGORY_TOTALS_SQL);
+                    linesStmt.setInt(1, orderId);
+                    ResultSet lines = linesStmt.executeQuery();
+                    while (lines.next()) {
+                        tally.add(lines.getString("category"), Money.of(lines.getBigDecimal("line_total")).getCents());
+                    }
+                    Money[] amounts = tally.result();
+                    subtotal = amounts[0];
+                    tax = amounts[1];
+                    total = amounts[2];
+                    delta = DailySalesAggregator.billDelta(subtotal, tax, total, false);
+
+                    // Insert bill
+                    String sql = "INSERT INTO bills (order_id, subtotal, tax, total, bill_time, tax_label) VALUES (?, ?, ?, ?, ?, ?)";
+                    PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                    pstmt.setInt(1, orderId);
+                    pstmt.setBigDecimal(2, subtotal.toBigDecimal());
+                    pstmt.setBigDecimal(3, tax.toBigDecimal());
+                    pstmt.setBigDecimal(4, total.toBigDecimal());
+                    pstmt.setTimestamp(5, Timestamp.valueOf(billTime));
+                    pstmt.setString(6, taxTable.getLabel());
+
+                    int affected = pstmt.executeUpdate();
+                    if (affected > 0) {
+                        ResultSet generatedKeys = pstmt.getGeneratedKeys();
+                        if (generatedKeys.next()) {
+                            billId = generatedKeys.getInt(1);
+                        }
+                    }
+                    DailySalesAggregator.getInstance().write(conn, billTime, delta);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                DailySalesAggregator.getInstance().apply(billTime, delta);
+                if (billId > 0) {
+                    return new Bill(billId, orderId, subtotal, tax, total, "PENDING", billTime, taxTable.getLabel());
+                }
+
+            } catch (SQLException e) {
+                GENERATE_BILL.recordError();
+                System.err.println("Error generating bill: " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    public Bill getBillByOrderId(int orderId) {
+        return GET_BILL_BY_ORDER_ID.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "SELECT * FROM bills WHERE order_id = ?";
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                pstmt.setInt(1, orderId);
+                ResultSet rs = pstmt.executeQuery();
+
+                if (rs.next()) {
+                    return new Bill(
+                            rs.getInt("id"),
+                            rs.getInt("order_id"),
+                            Money.of(rs.getBigDecimal("subtotal")),
+                            Money.of(rs.getBigDecimal("tax")),
+                            Money.of(rs.getBigDecimal("total")),
+                            rs.getString("payment_status"),
+                            rs.getTimestamp("bill_time").toLocalDateTime(),
+                            rs.getString("tax_label")
+                    );
+                }
+
+            } catch (SQLException e) {
+                GET_BILL_BY_ORDER_ID.recordError();
+                System.err.println("Error fetching bill: " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    public boolean markBillAsPaid(int billId) {
+        return MARK_BILL_AS_PAID.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                LocalDateTime billTime = null;
+                long[] delta = null;
+                conn.setAutoCommit(false);
+                try {
+                    // Locked so a second payment, or the close job, cannot count the same bill twice
+                    String selectSql = "SELECT payment_status, total, bill_time FROM bills WHERE id = ? FOR UPDATE";
+                    PreparedStatement select = conn.prepareStatement(selectSql);
+                    select.setInt(1, billId);
+                    ResultSet rs = select.executeQuery();
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    if (!"PAID".equals(rs.getString("payment_status"))) {
+                        billTime = rs.getTimestamp("bill_time").toLocalDateTime();
+                        delta = DailySalesAggregator.paymentDelta(Money.of(rs.getBigDecimal("total")));
+
+                        String sql = "UPDATE bills SET payment_status = 'PAID' WHERE id = ?";
+                        PreparedStatement pstmt = conn.prepareStatement(sql);
+                        pstmt.setInt(1, billId);
+                        pstmt.executeUpdate();
+                        DailySalesAggregator.getInstance().write(conn, billTime, delta);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                if (delta != null) {
+                    DailySalesAggregator.getInstance().apply(billTime, delta);
+                }
+                EventBus.getInstance().publish(RestaurantEvent.billPaid(billId));
+                return true;
+
+            } catch (SQLException e) {
+                MARK_BILL_AS_PAID.recordError();
+                System.err.println("Error updating bill payment status: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    public void printBill(Bill bill, Order order) {
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("              RESTAURANT BILL");
+        System.out.println("=".repeat(50));
+        System.out.println("Bill ID: " + bill.getId());
+        System.out.println("Order ID: " + order.getId());
+        System.out.println("Table: " + order.getTableId());
+        System.out.println("Customer: " + order.getCustomerName());
+        System.out.println("Date: " + bill.getBillTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        System.out.println("-".repeat(50));
+
+        for (OrderItem item : order.getItems()) {
+            System.out.printf("%-25s %2dx$%6s = $%8s%n",
+                    item.getItemName(), item.getQuantity(), item.getPrice(), item.getTotal());
+        }
+
+        System.out.println("-".repeat(50));
+        System.out.printf("%-35s $%8s%n", "Subtotal:", bill.getSubtotal());
+        System.out.printf("%-35s $%8s%n", bill.getTaxLabel() + ":", bill.getTax());
+        System.out.println("=".repeat(50));
+        System.out.printf("%-35s $%8s%n", "TOTAL:", bill.getTotal());
+        System.out.println("=".repeat(50));
+        System.out.println("Payment Status: " + bill.getPaymentStatus());
+        System.out.println("\nThank you for dining with us!");
+        System.out.println("=".repeat(50));
+    }
+
+    // Async variants
+    public CompletableFuture<Bill> generateBillAsync(int orderId) {
+        return ServiceExecutor.supply(() -> generateBill(orderId));
+    }
+
+    public CompletableFuture<Bill> getBillByOrderIdAsync(int orderId) {
+        return ServiceExecutor.supply(() -> getBillByOrderId(orderId));
+    }
+
+    public CompletableFuture<Boolean> markBillAsPaidAsync(int billId) {
+        return ServiceExecutor.supply(() -> markBillAsPaid(billId));
+    }
+}
+
+// End-of-Day Close: bills every completed order that has no bill yet, in parallel chunks.
+// Each chunk commits on its own, so an interrupted run just picks up the remaining orders next time.
+class EndOfDayCloseJob {
+    interface ProgressListener {
+        void onProgress(int billed, int total);
+    }
+
+    static class Summary {
+        private final int ordersBilled;
+        private final int billsSettled;
+        private final int tablesFreed;
+        private final long elapsedMillis;
+        private final boolean completed;
+
+        Summary(int ordersBilled, int billsSettled, int tablesFreed, long elapsedMillis, boolean completed) {
+            this.ordersBilled = ordersBilled;
+            this.billsSettled = billsSettled;
+            this.tablesFreed = tablesFreed;
+            this.elapsedMillis = elapsedMillis;
+            this.completed = completed;
+        }
+
+        public int getOrdersBilled() { return ordersBilled; }
+        public int getBillsSettled() { return billsSettled; }
+        public int getTablesFreed() { return tablesFreed; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public boolean isCompleted() { return completed; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d orders billed, %d bills settled, %d tables freed in %d ms",
+                    completed ? "Day closed" : "Close interrupted (run again to resume)",
+                    ordersBilled, billsSettled, tablesFreed, elapsedMillis);
+        }
+    }
+
+    // Server-side lock so two terminals cannot close the same day at once and double-bill
+    private static final String LOCK_NAME = "restaurant_close_day";
+
+    private static final String UNBILLED_WHERE = """
+            FROM orders o
+            LEFT JOIN bills b ON b.order_id = o.id
+            WHERE o.status = 'COMPLETED' AND b.id IS NULL""";
+
+    // Both checked by SchemaMigrator, against idx_orders_status and idx_bills_payment_status
+    static final String COUNT_UNBILLED_SQL = "SELECT COUNT(*) " + UNBILLED_WHERE;
+    static final String PENDING_BILLS_SQL =
+            "SELECT id FROM bills WHERE payment_status = 'PENDING' AND bill_time >= ? AND bill_time < ? FOR UPDATE";
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final boolean settle;
+    private volatile boolean cancelled;
+
+    public EndOfDayCloseJob(boolean settle) {
+        this(Integer.getInteger("restaurant.close.chunkSize", 500),
+                Integer.getInteger("restaurant.close.parallelism", Math.max(1, DatabaseManager.getPool().getMaxSize() / 2)),
+                settle);
+    }
+
+    public EndOfDayCloseJob(int chunkSize, int parallelism, boolean settle) {
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.settle = settle;
+    }
+
+    // Stops after the chunks already in flight; everything committed so far stays billed
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public Summary run(ProgressListener listener) {
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (!acquireLock(conn)) {
+                System.err.println("Error closing day: another close is already running");
+                return null;
+            }
+            try {
+                // The business day being closed; bills from earlier days are left as they are
+                DailySalesAggregator dailySales = DailySalesAggregator.getInstance();
+                LocalDateTime dayStart = dailySales.dayStart(dailySales.businessDate(LocalDateTime.now()));
+
+                int total = countUnbilled(conn);
+                listener.onProgress(0, total);
+                int billed = billAll(conn, total, listener);
+                // Orders billed elsewhere while we ran are skipped, so billed can fall short of total
+                boolean completed = !cancelled;
+
+                int settled = 0;
+                int freed = 0;
+                if (completed) {
+                    if (settle) {
+                        settled = settlePendingBills(conn, dayStart, dayStart.plusDays(1));
+                    }
+                    freed = freeAllTables(conn);
+                }
+                return new Summary(billed, settled, freed, (System.nanoTime() - start) / 1_000_000, completed);
+            } finally {
+                releaseLock(conn);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error closing day: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private int billAll(Connection conn, int total, ProgressListener listener) throws SQLException {
+        // One rule set for the whole close, even if the rules file changes part way through
+        TaxTable taxTable = TaxEngine.getInstance().current();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "close-day-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(workers);
+        int billed = 0;
+        int inFlight = 0;
+        int lastId = 0;
+        try {
+            // The reader stays a couple of chunks ahead of the workers, never the whole day
+            while (!cancelled) {
+                List<Integer> ids = new ArrayList<>(chunkSize);
+                lastId = fetchChunk(conn, lastId, ids);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                completion.submit(() -> billChunk(ids, taxTable));
+                inFlight++;
+                if (inFlight >= parallelism * 2) {
+                    billed += awaitChunk(completion);
+                    inFlight--;
+                    listener.onProgress(billed, total);
+                }
+            }
+            while (inFlight > 0) {
+                billed += awaitChunk(completion);
+                inFlight--;
+                listener.onProgress(billed, total);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        } finally {
+            workers.shutdownNow();
+        }
+        return billed;
+    }
+
+    private int awaitChunk(CompletionService<Integer> completion) throws InterruptedException {
+        try {
+            return completion.take().get();
+        } catch (ExecutionException e) {
+            // That chunk rolled back; stop issuing more and let the next run retry it
+            cancelled = true;
+            System.err.println("Error billing orders: " + e.getCause().getMessage());
+            return 0;
+        }
+    }
+
+    private int fetchChunk(Connection conn, int afterId, List<Integer> ids) throws SQLException {
+        String sql = "SELECT o.id " + UNBILLED_WHERE + " AND o.id > ? ORDER BY o.id LIMIT ?";
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        pstmt.setInt(1, afterId);
+        pstmt.setInt(2, chunkSize);
+        ResultSet rs = pstmt.executeQuery();
+
+        int lastId = afterId;
+        while (rs.next()) {
+            lastId = rs.getInt("id");
+            ids.add(lastId);
+        }
+        return lastId;
+    }
+
+    private int billChunk(List<Integer> ids, TaxTable taxTable) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Lock only the order rows: a locking read of bills would also gap-lock the bills.order_id
+                // index above the highest billed order, the very gap every parallel chunk inserts into.
+                // generateBill locks the same order row, so the two cannot both insert a bill for it.
+                String inList = String.join(", ", Collections.nCopies(ids.size(), "?"));
+                PreparedStatement lockStmt = conn.prepareStatement(
+                        "SELECT id FROM orders WHERE id IN (" + inList + ") AND status = 'COMPLETED' ORDER BY id FOR UPDATE");
+                for (int i = 0; i < ids.size(); i++) {
+                    lockStmt.setInt(i + 1, ids.get(i));
+                }
+                Set<Integer> unbilled = new LinkedHashSet<>(ids.size());
+                ResultSet locked = lockStmt.executeQuery();
+                while (locked.next()) {
+                    unbilled.add(locked.getInt("id"));
+                }
+
+                // Drop orders billed since the chunk was read, e.g. from a terminal. A plain read: its snapshot
+                // is taken now, after the order locks, so it sees any bill committed under those locks.
+                if (!unbilled.isEmpty()) {
+                    PreparedStatement billedStmt = conn.prepareStatement(
+                            "SELECT order_id FROM bills WHERE order_id IN (" + inList + ")");
+                    for (int i = 0; i < ids.size(); i++) {
+                        billedStmt.setInt(i + 1, ids.get(i));
+                    }
+                    ResultSet billed = billedStmt.executeQuery();
+                    while (billed.next()) {
+                        unbilled.remove(billed.getInt("order_id"));
+                    }
+                }
+                if (unbilled.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                // Category totals for the chunk's orders in one query
+                Map<Integer, TaxTable.Tally> tallies = new HashMap<>();
+                String linesSql = "SELECT oi.order_id, mi.category, SUM(oi.price * oi.quantity) AS line_total "
+                        + "FROM order_items oi JOIN menu_items mi ON oi.menu_item_id = mi.id "
+                        + "WHERE oi.order_id IN (" + String.join(", ", Collections.nCopies(unbilled.size(), "?")) + ") "
+                        + "GROUP BY oi.order_id, mi.category";
+                PreparedStatement linesStmt = conn.prepareStatement(linesSql);
+                int param = 1;
+                for (int orderId : unbilled) {
+                    linesStmt.setInt(param++, orderId);
+                }
+                ResultSet rs = linesStmt.executeQuery();
+                while (rs.next()) {
+                    tallies.computeIfAbsent(rs.getInt("order_id"), id -> taxTable.newTally())
+                            .add(rs.getString("category"), Money.of(rs.getBigDecimal("line_total")).getCents());
+                }
 
-    public RestaurantTable(int id, int tableNumber, int capacity, String status) {
-        this.id = id;
-        this.tableNumber = tableNumber;
-        this.capacity = capacity;
-        this.status = status;
+                // The whole chunk is stamped with one time, so it adds to a single rollup row
+                LocalDateTime billTime = LocalDateTime.now().withNano(0);
+                long[] chunkDelta = new long[DailySalesAggregator.FIELDS];
+                String sql = "INSERT INTO bills (order_id, subtotal, tax, total, payment_status, bill_time, tax_label) VALUES (?, ?, ?, ?, ?, ?, ?)";
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                for (int orderId : unbilled) {
+                    TaxTable.Tally tally = tallies.get(orderId);
+                    Money[] amounts = tally != null ? tally.result() : new Money[] {Money.ZERO, Money.ZERO, Money.ZERO};
+                    pstmt.setInt(1, orderId);
+                    pstmt.setBigDecimal(2, amounts[0].toBigDecimal());
+                    pstmt.setBigDecimal(3, amounts[1].toBigDecimal());
+                    pstmt.setBigDecimal(4, amounts[2].toBigDecimal());
+                    pstmt.setString(5, settle ? "PAID" : "PENDING");
+                    pstmt.setTimestamp(6, Timestamp.valueOf(billTime));
+                    pstmt.setString(7, taxTable.getLabel());
+                    pstmt.addBatch();
+
+                    long[] delta = DailySalesAggregator.billDelta(amounts[0], amounts[1], amounts[2], settle);
+                    for (int field = 0; field < chunkDelta.length; field++) {
+                        chunkDelta[field] += delta[field];
+                    }
+                }
+                pstmt.executeBatch();
+                List<Integer> billIds = new ArrayList<>(unbilled.size());
+                ResultSet keys = pstmt.getGeneratedKeys();
+                while (keys.next()) {
+                    billIds.add(keys.getInt(1));
+                }
+                // Parallel chunks all add to the same hour's rollup row and queue on its lock. Written last,
+                // so each holds it only for its commit; accepted rather than splitting the rollup from the bills.
+                DailySalesAggregator.getInstance().write(conn, billTime, chunkDelta);
+                conn.commit();
+                DailySalesAggregator.getInstance().apply(billTime, chunkDelta);
+                if (settle) {
+                    for (int billId : billIds) {
+                        EventBus.getInstance().publish(RestaurantEvent.billPaid(billId));
+                    }
+                }
+                return unbilled.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
     }
 
-    // Getters and setters
-    public int getId() { return id; }
-    public int getTableNumber() { return tableNumber; }
-    public int getCapacity() { return capacity; }
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
-
-    @Override
-    public String toString() {
-        return String.format("Table %d (Capacity: %d) - %s", tableNumber, capacity, status);
+    private int countUnbilled(Connection conn) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(COUNT_UNBILLED_SQL);
+        ResultSet rs = pstmt.executeQuery();
+        return rs.next() ? rs.getInt(1) : 0;
     }
-}
 
-// Order Model
-class Order {
-    private int id;
-    private int tableId;
-    private String customerName;
-    private String status;
-    private BigDecimal totalAmount;
-    private LocalDateTime orderTime;
-    private List<OrderItem> items;
+    // Marks the day's pending bills paid, [from, to) being the business day, and announces each one
+    private int settlePendingBills(Connection conn, LocalDateTime from, LocalDateTime to) throws SQLException {
+        List<Integer> billIds = new ArrayList<>();
+        conn.setAutoCommit(false);
+        try {
+            // Locked so a payment taken at a terminal meanwhile cannot be counted twice
+            PreparedStatement select = conn.prepareStatement(PENDING_BILLS_SQL);
+            select.setTimestamp(1, Timestamp.valueOf(from));
+            select.setTimestamp(2, Timestamp.valueOf(to));
+            ResultSet rs = select.executeQuery();
+            while (rs.next()) {
+                billIds.add(rs.getInt("id"));
+            }
 
-    public Order(int id, int tableId, String customerName, String status, BigDecimal totalAmount, LocalDateTime orderTime) {
-        this.id = id;
-        this.tableId = tableId;
-        this.customerName = customerName;
-        this.status = status;
-        this.totalAmount = totalAmount;
-        this.orderTime = orderTime;
-        this.items = new ArrayList<>();
+            DailySalesAggregator.getInstance().settlePending(conn, from, to);
+            String sql = "UPDATE bills SET payment_status = 'PAID' WHERE payment_status = 'PENDING' AND bill_time >= ? AND bill_time < ?";
+            PreparedStatement pstmt = conn.prepareStatement(sql);
+            pstmt.setTimestamp(1, Timestamp.valueOf(from));
+            pstmt.setTimestamp(2, Timestamp.valueOf(to));
+            int settled = pstmt.executeUpdate();
+            conn.commit();
+
+            for (int billId : billIds) {
+                EventBus.getInstance().publish(RestaurantEvent.billPaid(billId));
+            }
+            return settled;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            // Spread over the day's hours, so reload rather than patch
+            DailySalesAggregator.getInstance().invalidate();
+        }
     }
 
-    // Getters and setters
-    public int getId() { return id; }
-    public int getTableId() { return tableId; }
-    public String getCustomerName() { return customerName; }
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
-    public BigDecimal getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
-    public LocalDateTime getOrderTime() { return orderTime; }
-    public List<OrderItem> getItems() { return items; }
-    public void setItems(List<OrderItem> items) { this.items = items; }
-}
+    private int freeAllTables(Connection conn) throws SQLException {
+        List<Integer> tableIds = new ArrayList<>();
+        PreparedStatement select = conn.prepareStatement("SELECT id FROM tables WHERE status <> 'AVAILABLE'");
+        ResultSet rs = select.executeQuery();
+        while (rs.next()) {
+            tableIds.add(rs.getInt("id"));
+        }
+        if (tableIds.isEmpty()) {
+            return 0;
+        }
 
-// OrderItem Model
-class OrderItem {
-    private int id;
-    private int orderId;
-    private int menuItemId;
-    private String itemName;
-    private int quantity;
-    private BigDecimal price;
+        PreparedStatement update = conn.prepareStatement("UPDATE tables SET status = 'AVAILABLE' WHERE status <> 'AVAILABLE'");
+        int freed = update.executeUpdate();
 
-    public OrderItem(int id, int orderId, int menuItemId, String itemName, int quantity, BigDecimal price) {
-        this.id = id;
-        this.orderId = orderId;
-        this.menuItemId = menuItemId;
-        this.itemName = itemName;
-        this.quantity = quantity;
-        this.price = price;
+        TableOccupancy occupancy = TableOccupancy.getInstance();
+        for (int tableId : tableIds) {
+            occupancy.observe(tableId, "AVAILABLE");
+            EventBus.getInstance().publish(RestaurantEvent.tableStatusChanged(tableId, "AVAILABLE"));
+        }
+        return freed;
     }
 
-    // Getters and setters
-    public int getId() { return id; }
-    public int getOrderId() { return orderId; }
-    public int getMenuItemId() { return menuItemId; }
-    public String getItemName() { return itemName; }
-    public int getQuantity() { return quantity; }
-    public BigDecimal getPrice() { return price; }
-    public BigDecimal getTotal() { return price.multiply(new BigDecimal(quantity)); }
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)");
+        pstmt.setString(1, LOCK_NAME);
+        ResultSet rs = pstmt.executeQuery();
+        return rs.next() && rs.getInt(1) == 1;
+    }
 
-    @Override
-    public String toString() {
-        return String.format("%s x%d @ $%.2f = $%.2f", itemName, quantity, price, getTotal());
+    private static void releaseLock(Connection conn) {
+        try {
+            PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)");
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery();
+        } catch (SQLException e) {
+            System.err.println("Error releasing close-day lock: " + e.getMessage());
+        }
     }
 }
 
-// Bill Model
-class Bill {
-    private int id;
-    private int orderId;
-    private BigDecimal subtotal;
-    private BigDecimal tax;
-    private BigDecimal total;
-    private String paymentStatus;
-    private LocalDateTime billTime;
+// Sales Analytics: order history loaded once into column arrays and scanned in parallel, so reports
+// never run aggregate SQL against the live database. Call refresh() to pick up newer sales.
+class SalesAnalytics {
+    private static final SalesAnalytics INSTANCE = new SalesAnalytics(Integer.getInteger("restaurant.analytics.historyDays", 400));
+    private static final OperationStats LOAD = ServiceMetrics.operation("SalesAnalytics.load");
+    private static final OperationStats QUERY = ServiceMetrics.operation("SalesAnalytics.query");
 
-    public Bill(int id, int orderId, BigDecimal subtotal, BigDecimal tax, BigDecimal total, String paymentStatus, LocalDateTime billTime) {
-        this.id = id;
-        this.orderId = orderId;
-        this.subtotal = subtotal;
-        this.tax = tax;
-        this.total = total;
-        this.paymentStatus = paymentStatus;
-        this.billTime = billTime;
+    // Ranges smaller than this are scanned on one thread
+    private static final int SPLIT_ROWS = 1 << 15;
+    private static final int FETCH_SIZE = 5000;
+    private static final String UNCATEGORIZED = "Uncategorized";
+
+    interface RangeScan<R> {
+        R scan(int from, int to);
     }
 
-    // Getters and setters
-    public int getId() { return id; }
-    public int getOrderId() { return orderId; }
-    public BigDecimal getSubtotal() { return subtotal; }
-    public BigDecimal getTax() { return tax; }
-    public BigDecimal getTotal() { return total; }
-    public String getPaymentStatus() { return paymentStatus; }
-    public LocalDateTime getBillTime() { return billTime; }
-}
+    static final class ItemSales {
+        private final int menuItemId;
+        private final String name;
+        private final long quantity;
+        private final Money revenue;
+
+        ItemSales(int menuItemId, String name, long quantity, Money revenue) {
+            this.menuItemId = menuItemId;
+            this.name = name;
+            this.quantity = quantity;
+            this.revenue = revenue;
+        }
 
-// User Management Service
-class UserManagementService {
-    public boolean registerUser(String username, String password, String role) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, username);
-            pstmt.setString(2, password); // In production, hash the password
-            pstmt.setString(3, role);
+        public int getMenuItemId() { return menuItemId; }
+        public String getName() { return name; }
+        public long getQuantity() { return quantity; }
+        public Money getRevenue() { return revenue; }
+    }
 
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
+    // Everything one load produced; replaced whole, never modified after it is published
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Columns(), new Columns(), new int[0], new String[0],
+                new StringDictionary(), null);
+
+        // One row per order item of an order that was not cancelled
+        final int itemCount;
+        final int[] itemCodes;
+        final int[] quantities;
+        final long[] lineCents;
+        final int[] itemMinutes;
+        final int[] itemCategories;
+        // One row per bill
+        final int billCount;
+        final long[] billCents;
+        final int[] billMinutes;
+        // Dense item code to menu id and name
+        final int[] menuIds;
+        final String[] menuNames;
+        final StringDictionary categories;
+        final LocalDateTime loadedAt;
+
+        Snapshot(Columns items, Columns bills, int[] menuIds, String[] menuNames, StringDictionary categories,
+                 LocalDateTime loadedAt) {
+            this.itemCount = items.size;
+            this.itemCodes = items.ints[0];
+            this.quantities = items.ints[1];
+            this.itemMinutes = items.ints[2];
+            this.itemCategories = items.ints[3];
+            this.lineCents = items.longs;
+            this.billCount = bills.size;
+            this.billMinutes = bills.ints[0];
+            this.billCents = bills.longs;
+            this.menuIds = menuIds;
+            this.menuNames = menuNames;
+            this.categories = categories;
+            this.loadedAt = loadedAt;
+        }
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error registering user: " + e.getMessage());
-            return false;
+    // Growable int columns plus one long column, filled while streaming a result set
+    static final class Columns {
+        int[][] ints = new int[4][1024];
+        long[] longs = new long[1024];
+        int size;
+
+        int add() {
+            if (size == longs.length) {
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = Arrays.copyOf(ints[i], size * 2);
+                }
+                longs = Arrays.copyOf(longs, size * 2);
+            }
+            return size++;
         }
     }
-        static List<User> getAllUsers() {
-            List<User> users = new ArrayList<>();
+
+    private final int historyDays;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public static SalesAnalytics getInstance() {
+        return INSTANCE;
+    }
+
+    SalesAnalytics(int historyDays) {
+        this.historyDays = historyDays;
+    }
+
+    // Streams the history into a new snapshot; queries keep using the old one until it is ready.
+    // One load at a time: callers arriving during a load wait for it rather than starting another.
+    public synchronized boolean refresh() {
+        return LOAD.time(() -> {
+            Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusDays(historyDays));
+            Columns items = new Columns();
+            Columns bills = new Columns();
+            Map<Integer, Integer> codes = new HashMap<>();
+            List<Integer> menuIds = new ArrayList<>();
+            List<String> menuNames = new ArrayList<>();
+            StringDictionary categories = new StringDictionary();
+            String itemsSql = """
+                SELECT oi.menu_item_id, oi.quantity, oi.price, o.order_time, m.name, m.category
+                FROM order_items oi
+                JOIN orders o ON o.id = oi.order_id
+                LEFT JOIN menu_items m ON m.id = oi.menu_item_id
+                WHERE o.status <> 'CANCELLED' AND o.order_time >= ?
+            """;
+            String billsSql = "SELECT total, bill_time FROM bills WHERE bill_time >= ?";
             try (Connection conn = DatabaseManager.getConnection()) {
-                String sql = "SELECT * FROM users ORDER BY username";
-                PreparedStatement pstmt = conn.prepareStatement(sql);
+                PreparedStatement pstmt = conn.prepareStatement(itemsSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                pstmt.setFetchSize(FETCH_SIZE);
+                pstmt.setTimestamp(1, since);
                 ResultSet rs = pstmt.executeQuery();
-
                 while (rs.next()) {
-                    User user = new User(
-                            rs.getInt("id"),
-                            rs.getString("username"),
-                            rs.getString("password"),
-                            rs.getString("role"),
-                            rs.getTimestamp("created_at").toLocalDateTime()
-                    );
-                    users.add(user);
+                    int menuItemId = rs.getInt("menu_item_id");
+                    Integer code = codes.get(menuItemId);
+                    if (code == null) {
+                        code = menuIds.size();
+                        codes.put(menuItemId, code);
+                        menuIds.add(menuItemId);
+                        String name = rs.getString("name");
+                        menuNames.add(name != null ? name : "Item #" + menuItemId);
+                    }
+                    String category = rs.getString("category");
+                    int quantity = rs.getInt("quantity");
+                    int row = items.add();
+                    items.ints[0][row] = code;
+                    items.ints[1][row] = quantity;
+                    items.ints[2][row] = toMinute(rs.getTimestamp("order_time").toLocalDateTime());
+                    items.ints[3][row] = categories.codeOf(category != null ? category : UNCATEGORIZED);
+                    items.longs[row] = Money.of(rs.getBigDecimal("price")).multiplyCents(quantity);
                 }
 
+                pstmt = conn.prepareStatement(billsSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                pstmt.setFetchSize(FETCH_SIZE);
+                pstmt.setTimestamp(1, since);
+                rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    int row = bills.add();
+                    bills.ints[0][row] = toMinute(rs.getTimestamp("bill_time").toLocalDateTime());
+                    bills.longs[row] = Money.of(rs.getBigDecimal("total")).getCents();
+                }
             } catch (SQLException e) {
-                System.err.println("Error fetching users: " + e.getMessage());
+                LOAD.recordError();
+                System.err.println("Error loading sales history: " + e.getMessage());
+                return false;
             }
-            return users;
-        }
 
+            snapshot = new Snapshot(items, bills, menuIds.stream().mapToInt(Integer::intValue).toArray(),
+                    menuNames.toArray(new String[0]), categories, LocalDateTime.now());
+            return true;
+        });
+    }
 
-    public User authenticateUser(String username, String password) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, username);
-            pstmt.setString(2, password);
-
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new User(rs.getInt("id"), rs.getString("username"),
-                        rs.getString("password"), rs.getString("role"),rs.getTimestamp("created_at").toLocalDateTime());
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s.loadedAt == null) {
+            synchronized (this) {
+                // Loaded by whoever held the lock before us; no need to load it again
+                if (snapshot == s) {
+                    refresh();
+                }
+                s = snapshot;
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error authenticating user: " + e.getMessage());
         }
-        return null;
+        return s;
     }
-}
 
+    public LocalDateTime getLoadedAt() {
+        return snapshot.loadedAt;
+    }
 
-// Menu Management Service
-class MenuManagementService {
-    public boolean addMenuItem(String name, String category, BigDecimal price, String description) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "INSERT INTO menu_items (name, category, price, description) VALUES (?, ?, ?, ?)";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, name);
-            pstmt.setString(2, category);
-            pstmt.setBigDecimal(3, price);
-            pstmt.setString(4, description);
+    // Timestamps carry no zone, so minutes are counted as if they were UTC; hours and days stay local
+    static int toMinute(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
 
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
+    // Best sellers by quantity between from (inclusive) and to (exclusive)
+    public List<ItemSales> topItems(LocalDateTime from, LocalDateTime to, int limit) {
+        return QUERY.time(() -> topItems(current(), from, to, limit));
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error adding menu item: " + e.getMessage());
-            return false;
+    private static List<ItemSales> topItems(Snapshot s, LocalDateTime from, LocalDateTime to, int limit) {
+        int lo = toMinute(from);
+        int hi = toMinute(to);
+        int items = s.menuIds.length;
+        // Quantity at 2 * code, revenue at 2 * code + 1
+        long[] totals = parallelScan(s.itemCount, (start, end) -> {
+            long[] partial = new long[items * 2];
+            for (int i = start; i < end; i++) {
+                int minute = s.itemMinutes[i];
+                if (minute >= lo && minute < hi) {
+                    int code = s.itemCodes[i];
+                    partial[code * 2] += s.quantities[i];
+                    partial[code * 2 + 1] += s.lineCents[i];
+                }
+            }
+            return partial;
+        }, items * 2);
+
+        List<ItemSales> result = new ArrayList<>();
+        for (int code = 0; code < items; code++) {
+            if (totals[code * 2] > 0) {
+                result.add(new ItemSales(s.menuIds[code], s.menuNames[code], totals[code * 2],
+                        Money.ofCents(totals[code * 2 + 1])));
+            }
         }
+        result.sort((a, b) -> Long.compare(b.getQuantity(), a.getQuantity()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
     }
 
-    public boolean updateMenuItem(int id, String name, String category, BigDecimal price, String description) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "UPDATE menu_items SET name = ?, category = ?, price = ?, description = ? WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, name);
-            pstmt.setString(2, category);
-            pstmt.setBigDecimal(3, price);
-            pstmt.setString(4, description);
-            pstmt.setInt(5, id);
-
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
+    // Revenue per hour of the day, index 0 to 23
+    public Money[] revenueByHour(LocalDateTime from, LocalDateTime to) {
+        return QUERY.time(() -> revenueByHour(current(), from, to));
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error updating menu item: " + e.getMessage());
-            return false;
-        }
+    private static Money[] revenueByHour(Snapshot s, LocalDateTime from, LocalDateTime to) {
+        int lo = toMinute(from);
+        int hi = toMinute(to);
+        long[] totals = parallelScan(s.itemCount, (start, end) -> {
+            long[] partial = new long[24];
+            for (int i = start; i < end; i++) {
+                int minute = s.itemMinutes[i];
+                if (minute >= lo && minute < hi) {
+                    partial[(minute / 60) % 24] += s.lineCents[i];
+                }
+            }
+            return partial;
+        }, 24);
+        return toMoney(totals);
     }
 
-    public boolean deleteMenuItem(int id) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "DELETE FROM menu_items WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, id);
+    // Revenue per calendar day that had any sales, oldest first
+    public SortedMap<LocalDate, Money> revenueByDay(LocalDateTime from, LocalDateTime to) {
+        return QUERY.time(() -> revenueByDay(current(), from, to));
+    }
 
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
+    private static SortedMap<LocalDate, Money> revenueByDay(Snapshot s, LocalDateTime from, LocalDateTime to) {
+        int lo = toMinute(from);
+        int hi = toMinute(to);
+        int firstDay = Math.floorDiv(lo, 1440);
+        int days = Math.floorDiv(hi - 1, 1440) - firstDay + 1;
+        long[] totals = parallelScan(s.itemCount, (start, end) -> {
+            long[] partial = new long[Math.max(days, 0)];
+            for (int i = start; i < end; i++) {
+                int minute = s.itemMinutes[i];
+                if (minute >= lo && minute < hi) {
+                    partial[minute / 1440 - firstDay] += s.lineCents[i];
+                }
+            }
+            return partial;
+        }, Math.max(days, 0));
 
-        } catch (SQLException e) {
-            System.err.println("Error deleting menu item: " + e.getMessage());
-            return false;
+        SortedMap<LocalDate, Money> result = new TreeMap<>();
+        for (int day = 0; day < totals.length; day++) {
+            if (totals[day] != 0) {
+                result.put(LocalDate.ofEpochDay(firstDay + day), Money.ofCents(totals[day]));
+            }
         }
+        return result;
     }
 
-    public List<MenuItem> getAllMenuItems() {
-        List<MenuItem> items = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM menu_items ORDER BY category, name";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
+    // Revenue per menu category, largest first
+    public Map<String, Money> revenueByCategory(LocalDateTime from, LocalDateTime to) {
+        return QUERY.time(() -> revenueByCategory(current(), from, to));
+    }
 
-            while (rs.next()) {
-                MenuItem item = new MenuItem(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("category"),
-                        rs.getBigDecimal("price"),
-                        rs.getBoolean("available"),
-                        rs.getString("description")
-                );
-                items.add(item);
+    private static Map<String, Money> revenueByCategory(Snapshot s, LocalDateTime from, LocalDateTime to) {
+        int lo = toMinute(from);
+        int hi = toMinute(to);
+        int categories = s.categories.size();
+        long[] totals = parallelScan(s.itemCount, (start, end) -> {
+            long[] partial = new long[categories];
+            for (int i = start; i < end; i++) {
+                int minute = s.itemMinutes[i];
+                if (minute >= lo && minute < hi) {
+                    partial[s.itemCategories[i]] += s.lineCents[i];
+                }
             }
+            return partial;
+        }, categories);
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching menu items: " + e.getMessage());
+        List<Integer> order = new ArrayList<>();
+        for (int code = 0; code < categories; code++) {
+            if (totals[code] != 0) {
+                order.add(code);
+            }
         }
-        return items;
+        order.sort((a, b) -> Long.compare(totals[b], totals[a]));
+        Map<String, Money> result = new LinkedHashMap<>();
+        for (int code : order) {
+            result.put(s.categories.valueOf(code), Money.ofCents(totals[code]));
+        }
+        return result;
     }
 
-    public List<MenuItem> getMenuItemsByCategory(String category) {
-        List<MenuItem> items = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM menu_items WHERE category = ? ORDER BY name";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, category);
-            ResultSet rs = pstmt.executeQuery();
+    // Mean bill total, tax included; zero when there were no bills
+    public Money averageTicket(LocalDateTime from, LocalDateTime to) {
+        return QUERY.time(() -> averageTicket(current(), from, to));
+    }
 
-            while (rs.next()) {
-                MenuItem item = new MenuItem(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("category"),
-                        rs.getBigDecimal("price"),
-                        rs.getBoolean("available"),
-                        rs.getString("description")
-                );
-                items.add(item);
+    private static Money averageTicket(Snapshot s, LocalDateTime from, LocalDateTime to) {
+        int lo = toMinute(from);
+        int hi = toMinute(to);
+        long[] totals = parallelScan(s.billCount, (start, end) -> {
+            long[] partial = new long[2];
+            for (int i = start; i < end; i++) {
+                int minute = s.billMinutes[i];
+                if (minute >= lo && minute < hi) {
+                    partial[0]++;
+                    partial[1] += s.billCents[i];
+                }
             }
+            return partial;
+        }, 2);
+        return totals[0] == 0 ? Money.ZERO : Money.ofCents(Money.scaleHalfUp(totals[1], 1, totals[0]));
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching menu items by category: " + e.getMessage());
+    public String report(LocalDateTime from, LocalDateTime to) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        StringBuilder text = new StringBuilder();
+        // One snapshot for every section, so they agree and at most one load is started
+        Snapshot s = current();
+        long scanStarted = System.nanoTime();
+        List<ItemSales> top = QUERY.time(() -> topItems(s, from, to, 10));
+        Map<String, Money> byCategory = QUERY.time(() -> revenueByCategory(s, from, to));
+        Money[] byHour = QUERY.time(() -> revenueByHour(s, from, to));
+        SortedMap<LocalDate, Money> byDay = QUERY.time(() -> revenueByDay(s, from, to));
+        Money average = QUERY.time(() -> averageTicket(s, from, to));
+        long scanMillis = (System.nanoTime() - scanStarted) / 1_000_000;
+
+        Money revenue = Money.ZERO;
+        for (Money amount : byDay.values()) {
+            revenue = revenue.plus(amount);
         }
-        return items;
-    }
+        text.append("Sales ").append(from.format(formatter)).append(" to ").append(to.format(formatter)).append('\n');
+        text.append(String.format("Revenue: %s   Average ticket: %s%n", revenue, average));
 
-    public boolean updateItemAvailability(int id, boolean available) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "UPDATE menu_items SET available = ? WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setBoolean(1, available);
-            pstmt.setInt(2, id);
+        text.append("\nTop items\n");
+        for (ItemSales item : top) {
+            text.append(String.format("  %-30s %8d %12s%n", item.getName(), item.getQuantity(), item.getRevenue()));
+        }
+        text.append("\nBy category\n");
+        for (Map.Entry<String, Money> entry : byCategory.entrySet()) {
+            text.append(String.format("  %-30s %12s%n", entry.getKey(), entry.getValue()));
+        }
+        text.append("\nBy hour\n");
+        for (int hour = 0; hour < 24; hour++) {
+            if (!byHour[hour].isZero()) {
+                text.append(String.format("  %02d:00 %12s%n", hour, byHour[hour]));
+            }
+        }
+        text.append("\nBy day\n");
+        for (Map.Entry<LocalDate, Money> entry : byDay.entrySet()) {
+            text.append(String.format("  %s %12s%n", entry.getKey(), entry.getValue()));
+        }
+        LocalDateTime loadedAt = s.loadedAt;
+        text.append(String.format("%nData as of %s, queries took %d ms%n",
+                loadedAt != null ? loadedAt.format(formatter) : "never", scanMillis));
+        return text.toString();
+    }
 
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
+    private static Money[] toMoney(long[] cents) {
+        Money[] result = new Money[cents.length];
+        for (int i = 0; i < cents.length; i++) {
+            result[i] = Money.ofCents(cents[i]);
+        }
+        return result;
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error updating item availability: " + e.getMessage());
-            return false;
+    // Splits [0, rows) across the common fork-join pool and adds up the partial arrays
+    private static long[] parallelScan(int rows, RangeScan<long[]> leaf, int width) {
+        if (rows == 0) {
+            return new long[width];
         }
+        return ForkJoinPool.commonPool().invoke(new ScanTask(0, rows, leaf));
     }
 
-    public MenuItem getMenuItemById(int id) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM menu_items WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
+    private static final class ScanTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
 
-            if (rs.next()) {
-                return new MenuItem(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("category"),
-                        rs.getBigDecimal("price"),
-                        rs.getBoolean("available"),
-                        rs.getString("description")
-                );
+        private final int from;
+        private final int to;
+        private final RangeScan<long[]> leaf;
+
+        ScanTask(int from, int to, RangeScan<long[]> leaf) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= SPLIT_ROWS) {
+                return leaf.scan(from, to);
             }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(from, mid, leaf);
+            left.fork();
+            long[] right = new ScanTask(mid, to, leaf).compute();
+            long[] sum = left.join();
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += right[i];
+            }
+            return sum;
+        }
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching menu item: " + e.getMessage());
+    // Times the queries over a synthetic year of sales: java SalesAnalytics [itemRows]
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+        Random random = new Random(42);
+        LocalDateTime end = LocalDateTime.now();
+        int first = toMinute(end.minusDays(365));
+        int last = toMinute(end);
+        Columns items = new Columns();
+        Columns bills = new Columns();
+        StringDictionary categories = new StringDictionary();
+        int[] menuIds = new int[200];
+        String[] menuNames = new String[200];
+        for (int code = 0; code < menuIds.length; code++) {
+            menuIds[code] = code + 1;
+            menuNames[code] = "Item " + (code + 1);
+        }
+        for (int i = 0; i < rows; i++) {
+            int code = random.nextInt(menuIds.length);
+            int row = items.add();
+            items.ints[0][row] = code;
+            items.ints[1][row] = 1 + random.nextInt(3);
+            items.ints[2][row] = first + random.nextInt(last - first);
+            items.ints[3][row] = categories.codeOf("Category " + code % 8);
+            items.longs[row] = (500 + code * 25L) * items.ints[1][row];
+            if (i % 3 == 0) {
+                int bill = bills.add();
+                bills.ints[0][bill] = items.ints[2][row];
+                bills.longs[bill] = 2000 + random.nextInt(8000);
+            }
+        }
+        SalesAnalytics analytics = new SalesAnalytics(365);
+        analytics.snapshot = new Snapshot(items, bills, menuIds, menuNames, categories, end);
+
+        LocalDateTime from = end.minusDays(365);
+        for (int run = 0; run < 5; run++) {
+            long started = System.nanoTime();
+            analytics.topItems(from, end, 10);
+            analytics.revenueByHour(from, end);
+            analytics.revenueByDay(from, end);
+            analytics.revenueByCategory(from, end);
+            analytics.averageTicket(from, end);
+            System.out.printf("Run %d: all five queries over %,d item rows in %.1f ms%n",
+                    run + 1, rows, (System.nanoTime() - started) / 1e6);
         }
-        return null;
     }
 }
 
-// Table Management Service
-class TableManagementService {
-    public boolean addTable(int tableNumber, int capacity) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "INSERT INTO tables (table_number, capacity) VALUES (?, ?)";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, tableNumber);
-            pstmt.setInt(2, capacity);
+// Daily Sales Aggregator: per business day and hour running totals of bills, kept in the daily_sales
+// rollup table and mirrored in memory. Writers add deltas inside their own transaction, so the rollup
+// commits or rolls back with the bills it counts; readers never touch the bills table.
+class DailySalesAggregator {
+    private static final DailySalesAggregator INSTANCE = new DailySalesAggregator(
+            Integer.getInteger("restaurant.businessDay.startHour", 4),
+            Long.getLong("restaurant.sales.refreshMillis", 30_000L));
+    private static final OperationStats LOAD_DAY = ServiceMetrics.operation("DailySalesAggregator.loadDay");
+    private static final OperationStats REBUILD = ServiceMetrics.operation("DailySalesAggregator.rebuild");
+
+    // Slots of a delta or total; money is in cents
+    static final int BILLS = 0, SUBTOTAL = 1, TAX = 2, TOTAL = 3, PAID_BILLS = 4, PAID_TOTAL = 5, FIELDS = 6;
+    private static final int CACHED_DAYS = 31;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO daily_sales (business_date, sale_hour, bills, subtotal, tax, total, paid_bills, paid_total)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE bills = bills + VALUES(bills), subtotal = subtotal + VALUES(subtotal),
+                tax = tax + VALUES(tax), total = total + VALUES(total),
+                paid_bills = paid_bills + VALUES(paid_bills), paid_total = paid_total + VALUES(paid_total)""";
+
+    // One business day as of some moment; a copy, safe to hand to the UI
+    static final class DailySales {
+        private final LocalDate date;
+        private final long[] totals;
+        private final long[][] hours;
+
+        DailySales(LocalDate date, long[] totals, long[][] hours) {
+            this.date = date;
+            this.totals = totals;
+            this.hours = hours;
+        }
 
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
+        public LocalDate getDate() { return date; }
+        // There is no party size in the schema, so each bill counts as one cover
+        public long getCovers() { return totals[BILLS]; }
+        public Money getSubtotal() { return Money.ofCents(totals[SUBTOTAL]); }
+        public Money getTax() { return Money.ofCents(totals[TAX]); }
+        public Money getRevenue() { return Money.ofCents(totals[TOTAL]); }
+        public long getPaidBills() { return totals[PAID_BILLS]; }
+        public Money getPaidTotal() { return Money.ofCents(totals[PAID_TOTAL]); }
+        public Money getOutstanding() { return Money.ofCents(totals[TOTAL] - totals[PAID_TOTAL]); }
+        public Money getRevenueAt(int hour) { return Money.ofCents(hours[hour][TOTAL]); }
+
+        public Money getAverageTicket() {
+            return totals[BILLS] == 0 ? Money.ZERO : Money.ofCents(Money.scaleHalfUp(totals[TOTAL], 1, totals[BILLS]));
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Error adding table: " + e.getMessage());
-            return false;
+        @Override
+        public String toString() {
+            return String.format("%s: revenue %s (tax %s), %d covers, average ticket %s, paid %s, outstanding %s",
+                    date, getRevenue(), getTax(), getCovers(), getAverageTicket(), getPaidTotal(), getOutstanding());
+        }
+    }
+
+    private static final class Day {
+        final long[][] hours = new long[24][FIELDS];
+        final long[] totals = new long[FIELDS];
+        long loadedAt;
+        // When the read started; a bill stamped before then may already be in it
+        LocalDateTime readFrom;
+        // Read again on the next call instead of trusting these totals
+        boolean stale;
+
+        void add(int hour, long[] delta) {
+            for (int field = 0; field < FIELDS; field++) {
+                hours[hour][field] += delta[field];
+                totals[field] += delta[field];
+            }
         }
     }
 
-    public List<RestaurantTable> getAllTables() {
-        List<RestaurantTable> tables = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM tables ORDER BY table_number";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
+    private final int startHour;
+    private final long refreshMillis;
+    // Guarded by this: deltas applied so far, so a read can tell whether one landed while it ran
+    private long applied;
+    // Guarded by this
+    private final Map<LocalDate, Day> days = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, Day> eldest) {
+            return size() > CACHED_DAYS;
+        }
+    };
 
-            while (rs.next()) {
-                RestaurantTable table = new RestaurantTable(
-                        rs.getInt("id"),
-                        rs.getInt("table_number"),
-                        rs.getInt("capacity"),
-                        rs.getString("status")
-                );
-                tables.add(table);
-            }
+    public static DailySalesAggregator getInstance() {
+        return INSTANCE;
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching tables: " + e.getMessage());
-        }
-        return tables;
+    DailySalesAggregator(int startHour, long refreshMillis) {
+        this.startHour = startHour;
+        this.refreshMillis = refreshMillis;
     }
 
-    public boolean updateTableStatus(int tableId, String status) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "UPDATE tables SET status = ? WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, status);
-            pstmt.setInt(2, tableId);
+    // Sales after midnight but before the start hour belong to the previous night's service
+    public LocalDate businessDate(LocalDateTime time) {
+        return time.minusHours(startHour).toLocalDate();
+    }
 
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
+    // First instant of a business day; the day runs until the same hour the next morning
+    public LocalDateTime dayStart(LocalDate date) {
+        return date.atStartOfDay().plusHours(startHour);
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error updating table status: " + e.getMessage());
-            return false;
+    public static long[] billDelta(Money subtotal, Money tax, Money total, boolean paid) {
+        long[] delta = new long[FIELDS];
+        delta[BILLS] = 1;
+        delta[SUBTOTAL] = subtotal.getCents();
+        delta[TAX] = tax.getCents();
+        delta[TOTAL] = total.getCents();
+        if (paid) {
+            delta[PAID_BILLS] = 1;
+            delta[PAID_TOTAL] = total.getCents();
         }
+        return delta;
     }
 
-    public List<RestaurantTable> getAvailableTables() {
-        List<RestaurantTable> tables = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM tables WHERE status = 'AVAILABLE' ORDER BY table_number";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
+    public static long[] paymentDelta(Money total) {
+        long[] delta = new long[FIELDS];
+        delta[PAID_BILLS] = 1;
+        delta[PAID_TOTAL] = total.getCents();
+        return delta;
+    }
 
-            while (rs.next()) {
-                RestaurantTable table = new RestaurantTable(
-                        rs.getInt("id"),
-                        rs.getInt("table_number"),
-                        rs.getInt("capacity"),
-                        rs.getString("status")
-                );
-                tables.add(table);
-            }
+    // Adds to the rollup row on the caller's connection, inside the caller's transaction
+    public void write(Connection conn, LocalDateTime billTime, long[] delta) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL);
+        pstmt.setDate(1, java.sql.Date.valueOf(businessDate(billTime)));
+        pstmt.setInt(2, billTime.getHour());
+        pstmt.setLong(3, delta[BILLS]);
+        pstmt.setBigDecimal(4, Money.ofCents(delta[SUBTOTAL]).toBigDecimal());
+        pstmt.setBigDecimal(5, Money.ofCents(delta[TAX]).toBigDecimal());
+        pstmt.setBigDecimal(6, Money.ofCents(delta[TOTAL]).toBigDecimal());
+        pstmt.setLong(7, delta[PAID_BILLS]);
+        pstmt.setBigDecimal(8, Money.ofCents(delta[PAID_TOTAL]).toBigDecimal());
+        pstmt.executeUpdate();
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching available tables: " + e.getMessage());
+    // Mirrors a committed write; days not cached yet will read it from the table when first asked for.
+    // billTime is stamped before the commit, so a bill stamped after a read began cannot be in that read;
+    // any other bill may be, and its day is read again rather than patched and counted twice.
+    public synchronized void apply(LocalDateTime billTime, long[] delta) {
+        applied++;
+        Day day = days.get(businessDate(billTime));
+        if (day == null) {
+            return;
+        }
+        if (billTime.isAfter(day.readFrom)) {
+            day.add(billTime.getHour(), delta);
+        } else {
+            day.stale = true;
         }
-        return tables;
     }
-}
 
-// Order Management Service
-class OrderManagementService {
-    public int createOrder(int tableId, String customerName) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "INSERT INTO orders (table_id, customer_name) VALUES (?, ?)";
-            PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            pstmt.setInt(1, tableId);
-            pstmt.setString(2, customerName);
+    // Drops the in-memory copy after bulk changes made in SQL
+    public synchronized void invalidate() {
+        days.clear();
+    }
 
-            int affected = pstmt.executeUpdate();
-            if (affected > 0) {
-                ResultSet rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
+    public DailySales getToday() {
+        return getDay(businessDate(LocalDateTime.now()));
+    }
+
+    // At most 24 primary-key rows are read, and only when the cached copy is missing or stale.
+    // The read runs outside the lock, so bills being written never wait behind it.
+    public DailySales getDay(LocalDate date) {
+        long now = System.currentTimeMillis();
+        long appliedBefore;
+        synchronized (this) {
+            Day day = days.get(date);
+            if (day != null && !day.stale && now - day.loadedAt < refreshMillis) {
+                return copy(date, day);
             }
+            appliedBefore = applied;
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Error creating order: " + e.getMessage());
+        LocalDateTime readFrom = LocalDateTime.now();
+        Day loaded = loadDay(date);
+        synchronized (this) {
+            if (loaded == null) {
+                Day day = days.get(date);
+                return copy(date, day != null ? day : new Day());
+            }
+            loaded.loadedAt = now;
+            loaded.readFrom = readFrom;
+            // A delta applied meanwhile went to the old copy and may be missing from this read
+            loaded.stale = applied != appliedBefore;
+            days.put(date, loaded);
+            return copy(date, loaded);
         }
-        return -1;
     }
 
-    public boolean addItemToOrder(int orderId, int menuItemId, int quantity) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            // Get menu item price
-            String getPriceSql = "SELECT price FROM menu_items WHERE id = ?";
-            PreparedStatement getPriceStmt = conn.prepareStatement(getPriceSql);
-            getPriceStmt.setInt(1, menuItemId);
-            ResultSet rs = getPriceStmt.executeQuery();
-
-            if (rs.next()) {
-                BigDecimal price = rs.getBigDecimal("price");
+    private static DailySales copy(LocalDate date, Day day) {
+        long[][] hours = new long[24][];
+        for (int hour = 0; hour < 24; hour++) {
+            hours[hour] = day.hours[hour].clone();
+        }
+        return new DailySales(date, day.totals.clone(), hours);
+    }
 
-                // Add item to order
-                String sql = "INSERT INTO order_items (order_id, menu_item_id, quantity, price) VALUES (?, ?, ?, ?)";
+    private Day loadDay(LocalDate date) {
+        return LOAD_DAY.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                String sql = "SELECT * FROM daily_sales WHERE business_date = ?";
                 PreparedStatement pstmt = conn.prepareStatement(sql);
-                pstmt.setInt(1, orderId);
-                pstmt.setInt(2, menuItemId);
-                pstmt.setInt(3, quantity);
-                pstmt.setBigDecimal(4, price);
+                pstmt.setDate(1, java.sql.Date.valueOf(date));
+                ResultSet rs = pstmt.executeQuery();
 
-                int affected = pstmt.executeUpdate();
-                if (affected > 0) {
-                    updateOrderTotal(orderId);
-                    return true;
+                Day day = new Day();
+                while (rs.next()) {
+                    long[] row = new long[FIELDS];
+                    row[BILLS] = rs.getLong("bills");
+                    row[SUBTOTAL] = Money.of(rs.getBigDecimal("subtotal")).getCents();
+                    row[TAX] = Money.of(rs.getBigDecimal("tax")).getCents();
+                    row[TOTAL] = Money.of(rs.getBigDecimal("total")).getCents();
+                    row[PAID_BILLS] = rs.getLong("paid_bills");
+                    row[PAID_TOTAL] = Money.of(rs.getBigDecimal("paid_total")).getCents();
+                    day.add(rs.getInt("sale_hour"), row);
                 }
+                return day;
+            } catch (SQLException e) {
+                LOAD_DAY.recordError();
+                System.err.println("Error loading daily sales: " + e.getMessage());
+                return null;
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error adding item to order: " + e.getMessage());
-        }
-        return false;
+        });
     }
 
-    private void updateOrderTotal(int orderId) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "UPDATE orders SET total_amount = (SELECT SUM(price * quantity) FROM order_items WHERE order_id = ?) WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, orderId);
-            pstmt.setInt(2, orderId);
-            pstmt.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("Error updating order total: " + e.getMessage());
-        }
+    // Moves the total of every bill pending in [from, to) into the paid columns; run in the same
+    // transaction as the UPDATE that marks them paid
+    int settlePending(Connection conn, LocalDateTime from, LocalDateTime to) throws SQLException {
+        String sql = """
+                INSERT INTO daily_sales (business_date, sale_hour, bills, subtotal, tax, total, paid_bills, paid_total)
+                SELECT DATE(bill_time - INTERVAL ? HOUR), HOUR(bill_time), 0, 0, 0, 0, COUNT(*), SUM(total)
+                FROM bills WHERE payment_status = 'PENDING' AND bill_time >= ? AND bill_time < ?
+                GROUP BY DATE(bill_time - INTERVAL ? HOUR), HOUR(bill_time)
+                ON DUPLICATE KEY UPDATE paid_bills = paid_bills + VALUES(paid_bills),
+                    paid_total = paid_total + VALUES(paid_total)""";
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        pstmt.setInt(1, startHour);
+        pstmt.setTimestamp(2, Timestamp.valueOf(from));
+        pstmt.setTimestamp(3, Timestamp.valueOf(to));
+        pstmt.setInt(4, startHour);
+        return pstmt.executeUpdate();
     }
 
-    public List<Order> getAllOrders() {
-        List<Order> orders = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM orders ORDER BY order_time DESC";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                Order order = new Order(
-                        rs.getInt("id"),
-                        rs.getInt("table_id"),
-                        rs.getString("customer_name"),
-                        rs.getString("status"),
-                        rs.getBigDecimal("total_amount"),
-                        rs.getTimestamp("order_time").toLocalDateTime()
-                );
-
-                // Load order items
-                order.setItems(getOrderItems(order.getId()));
-                orders.add(order);
+    // Backfill: recomputes the whole rollup from bills. Bills written meanwhile wait for it to commit.
+    public int rebuild() {
+        return REBUILD.time(() -> {
+            try (Connection conn = DatabaseManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    conn.prepareStatement("DELETE FROM daily_sales").executeUpdate();
+                    String sql = """
+                            INSERT INTO daily_sales (business_date, sale_hour, bills, subtotal, tax, total, paid_bills, paid_total)
+                            SELECT DATE(bill_time - INTERVAL ? HOUR), HOUR(bill_time), COUNT(*), SUM(subtotal), SUM(tax), SUM(total),
+                                   SUM(payment_status = 'PAID'), SUM(CASE WHEN payment_status = 'PAID' THEN total ELSE 0 END)
+                            FROM bills
+                            GROUP BY DATE(bill_time - INTERVAL ? HOUR), HOUR(bill_time)""";
+                    PreparedStatement pstmt = conn.prepareStatement(sql);
+                    pstmt.setInt(1, startHour);
+                    pstmt.setInt(2, startHour);
+                    int rows = pstmt.executeUpdate();
+                    conn.commit();
+                    return rows;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                    invalidate();
+                }
+            } catch (SQLException e) {
+                REBUILD.recordError();
+                System.err.println("Error rebuilding daily sales: " + e.getMessage());
+                return -1;
             }
+        });
+    }
+}
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching orders: " + e.getMessage());
+// Order Exporter: streams orders, order items or bills to CSV or NDJSON for accounting. Rows go from
+// a forward-only cursor straight to a buffered (optionally gzipped) writer, so heap use does not grow
+// with the size of the export.
+class OrderExporter {
+    private static final OperationStats EXPORT = ServiceMetrics.operation("OrderExporter.export");
+    private static final List<String> ORDER_STATUSES = List.of("PENDING", "PREPARING", "COMPLETED", "CANCELLED");
+
+    enum Format { CSV, NDJSON }
+
+    // The status filter applies to the order status, except for bills where it is the payment status
+    enum Dataset {
+        ORDERS("""
+                SELECT o.id, o.table_id, o.customer_name, o.status, o.total_amount, o.order_time
+                FROM orders o
+                WHERE o.order_time >= ? AND o.order_time < ?""", "o.status", "o.order_time, o.id", ORDER_STATUSES),
+        ITEMS("""
+                SELECT oi.id, oi.order_id, oi.menu_item_id, mi.name AS item_name, mi.category, oi.quantity, oi.price,
+                       oi.price * oi.quantity AS line_total, o.status AS order_status, o.order_time
+                FROM order_items oi
+                JOIN orders o ON o.id = oi.order_id
+                LEFT JOIN menu_items mi ON mi.id = oi.menu_item_id
+                WHERE o.order_time >= ? AND o.order_time < ?""", "o.status", "o.order_time, o.id, oi.id", ORDER_STATUSES),
+        BILLS("""
+                SELECT b.id, b.order_id, b.subtotal, b.tax, b.total, b.payment_status, b.bill_time
+                FROM bills b
+                WHERE b.bill_time >= ? AND b.bill_time < ?""", "b.payment_status", "b.bill_time, b.id",
+                List.of("PENDING", "PAID"));
+
+        private final String sql;
+        private final String statusColumn;
+        private final String orderBy;
+        private final List<String> statuses;
+
+        Dataset(String sql, String statusColumn, String orderBy, List<String> statuses) {
+            this.sql = sql;
+            this.statusColumn = statusColumn;
+            this.orderBy = orderBy;
+            this.statuses = statuses;
         }
-        return orders;
-    }
 
-    public List<OrderItem> getOrderItems(int orderId) {
-        List<OrderItem> items = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = """
-                SELECT oi.*, mi.name 
-                FROM order_items oi 
-                JOIN menu_items mi ON oi.menu_item_id = mi.id 
-                WHERE oi.order_id = ?
-            """;
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, orderId);
-            ResultSet rs = pstmt.executeQuery();
+        // The values the status filter can take for this dataset, as in the schema's ENUM
+        public List<String> getStatuses() {
+            return statuses;
+        }
 
-            while (rs.next()) {
-                OrderItem item = new OrderItem(
-                        rs.getInt("id"),
-                        rs.getInt("order_id"),
-                        rs.getInt("menu_item_id"),
-                        rs.getString("name"),
-                        rs.getInt("quantity"),
-                        rs.getBigDecimal("price")
-                );
-                items.add(item);
+        public void checkStatus(String status) {
+            if (status != null && !statuses.contains(status)) {
+                throw new IllegalArgumentException("status for " + name().toLowerCase(Locale.ROOT) + " must be one of " + statuses);
             }
+        }
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching order items: " + e.getMessage());
+        String query(boolean filterStatus) {
+            return sql + (filterStatus ? " AND " + statusColumn + " = ?" : "") + " ORDER BY " + orderBy;
         }
-        return items;
     }
 
-    public boolean updateOrderStatus(int orderId, String status) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "UPDATE orders SET status = ? WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, status);
-            pstmt.setInt(2, orderId);
+    private static final int BUFFER_SIZE = 1 << 16;
 
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
+    private final Format format;
+    private final boolean gzip;
+    private final int fetchSize;
 
-        } catch (SQLException e) {
-            System.err.println("Error updating order status: " + e.getMessage());
-            return false;
-        }
+    public OrderExporter(Format format, boolean gzip) {
+        this(format, gzip, Integer.getInteger("restaurant.export.fetchSize", 1000));
     }
 
-    public Order getOrderById(int orderId) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM orders WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, orderId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                Order order = new Order(
-                        rs.getInt("id"),
-                        rs.getInt("table_id"),
-                        rs.getString("customer_name"),
-                        rs.getString("status"),
-                        rs.getBigDecimal("total_amount"),
-                        rs.getTimestamp("order_time").toLocalDateTime()
-                );
-                order.setItems(getOrderItems(order.getId()));
-                return order;
-            }
+    public OrderExporter(Format format, boolean gzip, int fetchSize) {
+        this.format = format;
+        this.gzip = gzip;
+        this.fetchSize = fetchSize;
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching order: " + e.getMessage());
+    // Rows from from (inclusive) to to (exclusive); status may be null for all. Returns -1 on failure.
+    public long export(Dataset dataset, LocalDateTime from, LocalDateTime to, String status, java.nio.file.Path file) {
+        try (OutputStream out = java.nio.file.Files.newOutputStream(file)) {
+            return export(dataset, from, to, status, out);
+        } catch (IOException e) {
+            System.err.println("Error exporting " + dataset.name().toLowerCase(Locale.ROOT) + ": " + e.getMessage());
+            return -1;
         }
-        return null;
     }
-}
-
-// Billing Service
-class BillingService {
-    private static final BigDecimal TAX_RATE = new BigDecimal("0.08"); // 8% tax
-
-    public Bill generateBill(int orderId) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            // Get order total
-            String getOrderSql = "SELECT total_amount FROM orders WHERE id = ?";
-            PreparedStatement getOrderStmt = conn.prepareStatement(getOrderSql);
-            getOrderStmt.setInt(1, orderId);
-            ResultSet rs = getOrderStmt.executeQuery();
 
-            if (rs.next()) {
-                BigDecimal subtotal = rs.getBigDecimal("total_amount");
-                BigDecimal tax = subtotal.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
-                BigDecimal total = subtotal.add(tax);
+    public long export(Dataset dataset, LocalDateTime from, LocalDateTime to, String status, OutputStream out) {
+        return EXPORT.time(() -> {
+            long rows = 0;
+            try (Connection conn = DatabaseManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(dataset.query(status != null),
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(fetchSize);
+                pstmt.setTimestamp(1, Timestamp.valueOf(from));
+                pstmt.setTimestamp(2, Timestamp.valueOf(to));
+                if (status != null) {
+                    pstmt.setString(3, status);
+                }
+                ResultSet rs = pstmt.executeQuery();
 
-                // Insert bill
-                String sql = "INSERT INTO bills (order_id, subtotal, tax, total) VALUES (?, ?, ?, ?)";
-                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-                pstmt.setInt(1, orderId);
-                pstmt.setBigDecimal(2, subtotal);
-                pstmt.setBigDecimal(3, tax);
-                pstmt.setBigDecimal(4, total);
+                OutputStream target = gzip ? new java.util.zip.GZIPOutputStream(out, BUFFER_SIZE) : out;
+                Writer writer = new BufferedWriter(new OutputStreamWriter(target, java.nio.charset.StandardCharsets.UTF_8), BUFFER_SIZE);
+                java.sql.ResultSetMetaData meta = rs.getMetaData();
+                String[] columns = new String[meta.getColumnCount()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = meta.getColumnLabel(i + 1);
+                }
 
-                int affected = pstmt.executeUpdate();
-                if (affected > 0) {
-                    ResultSet generatedKeys = pstmt.getGeneratedKeys();
-                    if (generatedKeys.next()) {
-                        int billId = generatedKeys.getInt(1);
-                        return new Bill(billId, orderId, subtotal, tax, total, "PENDING", LocalDateTime.now());
+                // One builder reused for every row
+                StringBuilder line = new StringBuilder(256);
+                if (format == Format.CSV) {
+                    for (int i = 0; i < columns.length; i++) {
+                        appendCsv(line, i > 0, columns[i]);
+                    }
+                    writer.append(line).append('\n');
+                }
+                while (rs.next()) {
+                    line.setLength(0);
+                    if (format == Format.CSV) {
+                        for (int i = 0; i < columns.length; i++) {
+                            Object value = rs.getObject(i + 1);
+                            appendCsv(line, i > 0, value instanceof String ? defuseFormula((String) value) : format(value));
+                        }
+                    } else {
+                        appendJson(line, columns, rs);
                     }
+                    writer.append(line).append('\n');
+                    rows++;
                 }
+                // Finishes the gzip trailer; the caller still owns and closes out
+                writer.flush();
+                if (target != out) {
+                    ((java.util.zip.GZIPOutputStream) target).finish();
+                }
+                return rows;
+
+            } catch (SQLException | IOException e) {
+                EXPORT.recordError();
+                System.err.println("Error exporting " + dataset.name().toLowerCase(Locale.ROOT) + " after " + rows + " rows: " + e.getMessage());
+                return -1L;
             }
+        });
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error generating bill: " + e.getMessage());
+    // Money as plain decimals, times as ISO local date-times, so spreadsheets and parsers agree
+    private static String format(Object value) {
+        if (value == null) {
+            return null;
         }
-        return null;
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toString();
+        }
+        return value.toString();
     }
 
-    public Bill getBillByOrderId(int orderId) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT * FROM bills WHERE order_id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, orderId);
-            ResultSet rs = pstmt.executeQuery();
+    // Spreadsheets run a cell starting with = + - @ (or a tab or CR before one) as a formula, so free text
+    // such as a customer name gets a leading quote; numbers and times are never text and are left alone
+    static String defuseFormula(String value) {
+        if (value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        return formula ? "'" + value : value;
+    }
 
-            if (rs.next()) {
-                return new Bill(
-                        rs.getInt("id"),
-                        rs.getInt("order_id"),
-                        rs.getBigDecimal("subtotal"),
-                        rs.getBigDecimal("tax"),
-                        rs.getBigDecimal("total"),
-                        rs.getString("payment_status"),
-                        rs.getTimestamp("bill_time").toLocalDateTime()
-                );
+    private static void appendCsv(StringBuilder line, boolean separator, String value) {
+        if (separator) {
+            line.append(',');
+        }
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error fetching bill: " + e.getMessage());
+            line.append(c);
         }
-        return null;
+        line.append('"');
     }
 
-    public boolean markBillAsPaid(int billId) {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            String sql = "UPDATE bills SET payment_status = 'PAID' WHERE id = ?";
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            pstmt.setInt(1, billId);
-
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
-
-        } catch (SQLException e) {
-            System.err.println("Error updating bill payment status: " + e.getMessage());
-            return false;
+    private static void appendJson(StringBuilder line, String[] columns, ResultSet rs) throws SQLException {
+        line.append('{');
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendJsonString(line, columns[i]);
+            line.append(':');
+            Object value = rs.getObject(i + 1);
+            if (value == null) {
+                line.append("null");
+            } else if (value instanceof Number) {
+                line.append(format(value));
+            } else {
+                appendJsonString(line, format(value));
+            }
         }
+        line.append('}');
     }
 
-    public void printBill(Bill bill, Order order) {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("              RESTAURANT BILL");
-        System.out.println("=".repeat(50));
-        System.out.println("Bill ID: " + bill.getId());
-        System.out.println("Order ID: " + order.getId());
-        System.out.println("Table: " + order.getTableId());
-        System.out.println("Customer: " + order.getCustomerName());
-        System.out.println("Date: " + bill.getBillTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        System.out.println("-".repeat(50));
-
-        for (OrderItem item : order.getItems()) {
-            System.out.printf("%-25s %2dx$%6.2f = $%8.2f%n",
-                    item.getItemName(), item.getQuantity(), item.getPrice(), item.getTotal());
+    private static void appendJsonString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
         }
+        line.append('"');
+    }
 
-        System.out.println("-".repeat(50));
-        System.out.printf("%-35s $%8.2f%n", "Subtotal:", bill.getSubtotal());
-        System.out.printf("%-35s $%8.2f%n", "Tax (8%):", bill.getTax());
-        System.out.println("=".repeat(50));
-        System.out.printf("%-35s $%8.2f%n", "TOTAL:", bill.getTotal());
-        System.out.println("=".repeat(50));
-        System.out.println("Payment Status: " + bill.getPaymentStatus());
-        System.out.println("\nThank you for dining with us!");
-        System.out.println("=".repeat(50));
+    // java OrderExporter <orders|items|bills> <csv|ndjson> <from yyyy-MM-dd> <to yyyy-MM-dd, exclusive> <file[.gz]> [status]
+    public static void main(String[] args) {
+        if (args.length < 5) {
+            System.out.println("Usage: java OrderExporter <orders|items|bills> <csv|ndjson> <from> <to> <file[.gz]> [status]");
+            return;
+        }
+        Dataset dataset = Dataset.valueOf(args[0].toUpperCase(Locale.ROOT));
+        Format format = Format.valueOf(args[1].toUpperCase(Locale.ROOT));
+        LocalDateTime from = LocalDate.parse(args[2]).atStartOfDay();
+        LocalDateTime to = LocalDate.parse(args[3]).atStartOfDay();
+        String status = args.length > 5 ? args[5].toUpperCase(Locale.ROOT) : null;
+        dataset.checkStatus(status);
+
+        long started = System.nanoTime();
+        long rows = new OrderExporter(format, args[4].endsWith(".gz"))
+                .export(dataset, from, to, status, java.nio.file.Paths.get(args[4]));
+        if (rows >= 0) {
+            System.out.printf("Exported %,d %s rows to %s in %d ms%n", rows, args[0], args[4],
+                    (System.nanoTime() - started) / 1_000_000);
+        }
     }
 }
 
 // Main Restaurant Management System
 class RestaurantManagementSystem {
+    private static final int ORDERS_PAGE_SIZE = 50;
     private static Scanner scanner = new Scanner(System.in);
     private static User currentUser = null;
     private static UserManagementService userService = new UserManagementService();
@@ -903,7 +6033,7 @@ class RestaurantManagementSystem {
         }
 
     private static void createDefaultAdmin() {
-        userService.registerUser("admin", "admin123", "ADMIN");
+        userService.ensureDefaultAdmin();
     }
 
     private static void showLoginMenu() {
@@ -975,7 +6105,8 @@ class RestaurantManagementSystem {
         System.out.println("3. Table Management");
         System.out.println("4. Billing System");
         System.out.println("5. User Management");
-        System.out.println("6. Logout");
+        System.out.println("6. Sales Reports");
+        System.out.println("7. Logout");
         System.out.print("Choose an option: ");
 
         int choice = scanner.nextInt();
@@ -1002,6 +6133,13 @@ class RestaurantManagementSystem {
                 }
                 break;
             case 6:
+                if (currentUser.getRole().equals("ADMIN")) {
+                    showSalesReports();
+                } else {
+                    System.out.println("Access denied! Admin privileges required.");
+                }
+                break;
+            case 7:
                 currentUser = null;
                 System.out.println("Logged out successfully!");
                 break;
@@ -1328,12 +6466,17 @@ class RestaurantManagementSystem {
         System.out.print("Customer name: ");
         String customerName = scanner.nextLine();
 
+        // Seat first so two hosts can never open orders on the same table
+        if (!tableService.seatParty(tableId)) {
+            System.out.println("Table is not available!");
+            return;
+        }
+
         int orderId = orderService.createOrder(tableId, customerName);
         if (orderId > 0) {
             System.out.println("Order created successfully! Order ID: " + orderId);
-            // Update table status to occupied
-            tableService.updateTableStatus(tableId, "OCCUPIED");
         } else {
+            tableService.releaseTable(tableId);
             System.out.println("Failed to create order!");
         }
     }
@@ -1352,24 +6495,28 @@ class RestaurantManagementSystem {
         System.out.println("Order details: Customer: " + order.getCustomerName() +
                 ", Table: " + order.getTableId() + ", Status: " + order.getStatus());
 
+        // Lines are collected into a ticket and sent to the kitchen in one go
+        List<OrderLine> ticket = new ArrayList<>();
         while (true) {
-            // Show available menu items
-            List<MenuItem> availableItems = menuService.getAllMenuItems().stream()
-                    .filter(MenuItem::isAvailable)
-                    .toList();
-
-            if (availableItems.isEmpty()) {
+            if (menuService.searchMenuItems("", 1, true).isEmpty()) {
                 System.out.println("No available menu items.");
                 break;
             }
 
-            System.out.println("\n=== AVAILABLE MENU ITEMS ===");
-            for (MenuItem item : availableItems) {
-                System.out.println(item);
+            // Words search the menu; a number picks an item by ID
+            System.out.print("\nSearch menu, or enter item ID (0 to finish and submit ticket): ");
+            String input = scanner.nextLine().trim();
+            if (!input.matches("\\d{1,9}")) {
+                List<MenuItem> matches = menuService.searchMenuItems(input, 15, true);
+                if (matches.isEmpty()) {
+                    System.out.println("No matching items.");
+                }
+                for (MenuItem item : matches) {
+                    System.out.println(item);
+                }
+                continue;
             }
-
-            System.out.print("\nEnter menu item ID (0 to finish): ");
-            int itemId = scanner.nextInt();
+            int itemId = Integer.parseInt(input);
 
             if (itemId == 0) break;
 
@@ -1383,27 +6530,44 @@ class RestaurantManagementSystem {
             int quantity = scanner.nextInt();
             scanner.nextLine(); // consume newline
 
-            if (orderService.addItemToOrder(orderId, itemId, quantity)) {
-                System.out.println("Item added to order successfully!");
-            } else {
-                System.out.println("Failed to add item to order!");
-            }
+            ticket.add(new OrderLine(itemId, quantity));
+            System.out.println("Added to ticket: " + item.getName() + " x" + quantity);
+        }
+
+        if (ticket.isEmpty()) {
+            return;
+        }
+        if (orderService.addItemsToOrder(orderId, ticket)) {
+            System.out.println(ticket.size() + " item(s) added to order successfully!");
+        } else {
+            System.out.println("Failed to add items to order!");
         }
     }
 
     private static void viewAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        if (orders.isEmpty()) {
+        OrderPage page = orderService.getOrdersPage(null, ORDERS_PAGE_SIZE);
+        if (page.getOrders().isEmpty()) {
             System.out.println("No orders found.");
             return;
         }
 
         System.out.println("\n=== ALL ORDERS ===");
-        for (Order order : orders) {
-            System.out.printf("Order ID: %d | Table: %d | Customer: %s | Status: %s | Total: $%.2f | Time: %s%n",
-                    order.getId(), order.getTableId(), order.getCustomerName(),
-                    order.getStatus(), order.getTotalAmount(),
-                    order.getOrderTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+        while (true) {
+            for (Order order : page.getOrders()) {
+                System.out.printf("Order ID: %d | Table: %d | Customer: %s | Status: %s | Total: $%s | Time: %s%n",
+                        order.getId(), order.getTableId(), order.getCustomerName(),
+                        order.getStatus(), order.getTotalAmount(),
+                        order.getOrderTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+            }
+            if (!page.hasMore()) {
+                break;
+            }
+
+            System.out.print("Show more orders? (y/N): ");
+            if (!scanner.nextLine().toLowerCase().startsWith("y")) {
+                break;
+            }
+            page = orderService.getOrdersPage(page, ORDERS_PAGE_SIZE);
         }
     }
 
@@ -1428,7 +6592,7 @@ class RestaurantManagementSystem {
             if (status.equals("COMPLETED") || status.equals("CANCELLED")) {
                 Order order = orderService.getOrderById(orderId);
                 if (order != null) {
-                    tableService.updateTableStatus(order.getTableId(), "AVAILABLE");
+                    tableService.releaseTable(order.getTableId());
                 }
             }
         } else {
@@ -1461,7 +6625,7 @@ class RestaurantManagementSystem {
             for (OrderItem item : order.getItems()) {
                 System.out.println("  " + item);
             }
-            System.out.printf("\nTotal Amount: $%.2f%n", order.getTotalAmount());
+            System.out.printf("\nTotal Amount: $%s%n", order.getTotalAmount());
         }
     }
 
@@ -1471,7 +6635,8 @@ class RestaurantManagementSystem {
         System.out.println("2. View Bill");
         System.out.println("3. Mark Bill as Paid");
         System.out.println("4. Print Bill");
-        System.out.println("5. Back to Main Menu");
+        System.out.println("5. Close Day");
+        System.out.println("6. Back to Main Menu");
         System.out.print("Choose an option: ");
 
         int choice = scanner.nextInt();
@@ -1491,6 +6656,9 @@ class RestaurantManagementSystem {
                 printBill();
                 break;
             case 5:
+                closeDay();
+                break;
+            case 6:
                 return;
             default:
                 System.out.println("Invalid option!");
@@ -1523,12 +6691,25 @@ class RestaurantManagementSystem {
         Bill bill = billingService.generateBill(orderId);
         if (bill != null) {
             System.out.println("Bill generated successfully!");
-            System.out.printf("Bill ID: %d, Total: $%.2f%n", bill.getId(), bill.getTotal());
+            System.out.printf("Bill ID: %d, Total: $%s%n", bill.getId(), bill.getTotal());
         } else {
             System.out.println("Failed to generate bill!");
         }
     }
 
+    private static void closeDay() {
+        System.out.print("Also mark today's bills as paid? (y/N): ");
+        boolean settle = scanner.nextLine().trim().equalsIgnoreCase("y");
+
+        EndOfDayCloseJob.Summary summary = new EndOfDayCloseJob(settle).run((billed, total) ->
+                System.out.printf("Billed %d of %d orders%n", billed, total));
+        if (summary != null) {
+            System.out.println(summary);
+        } else {
+            System.out.println("Failed to close day!");
+        }
+    }
+
     private static void viewBill() {
         System.out.print("Enter order ID: ");
         int orderId = scanner.nextInt();
@@ -1543,9 +6724,9 @@ class RestaurantManagementSystem {
         System.out.println("\n=== BILL DETAILS ===");
         System.out.println("Bill ID: " + bill.getId());
         System.out.println("Order ID: " + bill.getOrderId());
-        System.out.printf("Subtotal: $%.2f%n", bill.getSubtotal());
-        System.out.printf("Tax: $%.2f%n", bill.getTax());
-        System.out.printf("Total: $%.2f%n", bill.getTotal());
+        System.out.printf("Subtotal: $%s%n", bill.getSubtotal());
+        System.out.printf("Tax: $%s%n", bill.getTax());
+        System.out.printf("Total: $%s%n", bill.getTotal());
         System.out.println("Payment Status: " + bill.getPaymentStatus());
         System.out.println("Bill Time: " + bill.getBillTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
     }
@@ -1597,4 +6778,85 @@ class RestaurantManagementSystem {
                 System.out.println("Invalid option!");
         }
     }
+
+    private static void exportData() {
+        try {
+            System.out.print("Data (orders/items/bills): ");
+            OrderExporter.Dataset dataset = OrderExporter.Dataset.valueOf(scanner.nextLine().trim().toUpperCase(Locale.ROOT));
+            System.out.print("Format (csv/ndjson): ");
+            OrderExporter.Format format = OrderExporter.Format.valueOf(scanner.nextLine().trim().toUpperCase(Locale.ROOT));
+            System.out.print("From date (yyyy-MM-dd): ");
+            LocalDateTime from = LocalDate.parse(scanner.nextLine().trim()).atStartOfDay();
+            System.out.print("To date, not included (yyyy-MM-dd): ");
+            LocalDateTime to = LocalDate.parse(scanner.nextLine().trim()).atStartOfDay();
+            System.out.print("Status (blank for all; one of " + dataset.getStatuses() + "): ");
+            String status = scanner.nextLine().trim().toUpperCase(Locale.ROOT);
+            dataset.checkStatus(status.isEmpty() ? null : status);
+            System.out.print("Output file (end in .gz to compress): ");
+            String file = scanner.nextLine().trim();
+
+            long rows = new OrderExporter(format, file.endsWith(".gz"))
+                    .export(dataset, from, to, status.isEmpty() ? null : status, java.nio.file.Paths.get(file));
+            if (rows >= 0) {
+                System.out.println("Exported " + rows + " rows to " + file);
+            }
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            System.out.println("Invalid input: " + e.getMessage());
+        }
+    }
+
+    private static void showSalesReports() {
+        System.out.println("\n=== SALES REPORTS ===");
+        System.out.println("1. Today");
+        System.out.println("2. Last 7 Days");
+        System.out.println("3. Last 30 Days");
+        System.out.println("4. Last 365 Days");
+        System.out.println("5. Reload Sales Data");
+        System.out.println("6. Today's Totals");
+        System.out.println("7. Rebuild Daily Totals");
+        System.out.println("8. Export Data");
+        System.out.println("9. Back to Main Menu");
+        System.out.print("Choose an option: ");
+
+        int choice = scanner.nextInt();
+        scanner.nextLine(); // consume newline
+
+        SalesAnalytics analytics = SalesAnalytics.getInstance();
+        LocalDateTime now = LocalDateTime.now();
+        switch (choice) {
+            case 1:
+                System.out.println(analytics.report(now.toLocalDate().atStartOfDay(), now));
+                break;
+            case 2:
+                System.out.println(analytics.report(now.minusDays(7), now));
+                break;
+            case 3:
+                System.out.println(analytics.report(now.minusDays(30), now));
+                break;
+            case 4:
+                System.out.println(analytics.report(now.minusDays(365), now));
+                break;
+            case 5:
+                if (analytics.refresh()) {
+                    System.out.println("Sales data reloaded.");
+                }
+                break;
+            case 6:
+                System.out.println(DailySalesAggregator.getInstance().getToday());
+                break;
+            case 7:
+                int rows = DailySalesAggregator.getInstance().rebuild();
+                if (rows >= 0) {
+                    System.out.println("Daily totals rebuilt: " + rows + " hourly rows.");
+                }
+                break;
+            case 8:
+                exportData();
+                break;
+            case 9:
+                return;
+            default:
+                System.out.println("Invalid option!");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,262 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Dinner Rush Simulator: headless hosts, waiters and cashiers driving the real services at once.
+//   java -Drestaurant.db.url=... DinnerRushSimulator [--hosts=4] [--waiters=20] [--cashiers=4] [--duration=300]
+//        [--thinkMillis=2000] [--report=dinner-rush.properties] [--compare=previous.properties] [--seed]
+public class DinnerRushSimulator {
+    private static final String[] OPERATIONS = {
+            "createOrder", "addItemToOrder", "updateOrderStatus", "generateBill", "markBillAsPaid"
+    };
+
+    private final MenuManagementService menuService = new MenuManagementService();
+    private final TableManagementService tableService = new TableManagementService();
+    private final OrderManagementService orderService = new OrderManagementService();
+    private final BillingService billingService = new BillingService();
+
+    // Orders flow host -> waiter -> cashier through these queues
+    private final BlockingQueue<int[]> seatedOrders = new LinkedBlockingQueue<>();
+    private final BlockingQueue<int[]> completedOrders = new LinkedBlockingQueue<>();
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder tablesUnavailable = new LongAdder();
+    private final long meanThinkMillis;
+    private volatile boolean running = true;
+    private int[] menuItemIds;
+
+    DinnerRushSimulator(long meanThinkMillis) {
+        this.meanThinkMillis = meanThinkMillis;
+        for (String op : OPERATIONS) {
+            latencies.put(op, new LatencyHistogram());
+            errors.put(op, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ServiceBenchmark.parseOptions(args);
+        int hosts = Integer.parseInt(options.getOrDefault("hosts", "4"));
+        int waiters = Integer.parseInt(options.getOrDefault("waiters", "20"));
+        int cashiers = Integer.parseInt(options.getOrDefault("cashiers", "4"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "300"));
+        long thinkMillis = Long.parseLong(options.getOrDefault("thinkMillis", "2000"));
+        String reportPath = options.getOrDefault("report", "dinner-rush.properties");
+
+        DatabaseManager.initializeDatabase();
+        if (options.containsKey("seed")) {
+            new BenchmarkSeeder().seed(100, 200, 0);
+        }
+
+        DinnerRushSimulator simulator = new DinnerRushSimulator(thinkMillis);
+        Properties report = simulator.run(hosts, waiters, cashiers, duration);
+        report.setProperty("config.hosts", String.valueOf(hosts));
+        report.setProperty("config.waiters", String.valueOf(waiters));
+        report.setProperty("config.cashiers", String.valueOf(cashiers));
+        report.setProperty("config.thinkMillis", String.valueOf(thinkMillis));
+        report.setProperty("config.poolMaxSize", String.valueOf(DatabaseManager.getPool().getMaxSize()));
+
+        printReport(report, options.containsKey("compare") ? loadReport(options.get("compare")) : null);
+        try (java.io.Writer writer = new java.io.FileWriter(reportPath)) {
+            report.store(writer, "Dinner rush report");
+        }
+        System.out.println("Report written to " + reportPath);
+        DatabaseManager.shutdown();
+    }
+
+    Properties run(int hosts, int waiters, int cashiers, long durationSeconds) throws InterruptedException {
+        menuItemIds = menuService.getAllMenuItems().stream()
+                .filter(MenuItem::isAvailable).mapToInt(MenuItem::getId).toArray();
+        if (menuItemIds.length == 0) {
+            throw new IllegalStateException("No available menu items; run with --seed");
+        }
+
+        List<Thread> staff = new ArrayList<>();
+        for (int i = 0; i < hosts; i++) {
+            staff.add(new Thread(this::host, "host-" + i));
+        }
+        for (int i = 0; i < waiters; i++) {
+            staff.add(new Thread(this::waiter, "waiter-" + i));
+        }
+        for (int i = 0; i < cashiers; i++) {
+            staff.add(new Thread(this::cashier, "cashier-" + i));
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : staff) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        running = false;
+        for (Thread thread : staff) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Properties report = new Properties();
+        report.setProperty("run.seconds", String.format(Locale.ROOT, "%.1f", seconds));
+        report.setProperty("run.tablesUnavailable", String.valueOf(tablesUnavailable.sum()));
+        for (String op : OPERATIONS) {
+            LatencyHistogram histogram = latencies.get(op);
+            report.setProperty("op." + op + ".count", String.valueOf(histogram.getCount()));
+            report.setProperty("op." + op + ".errors", String.valueOf(errors.get(op).sum()));
+            report.setProperty("op." + op + ".throughput", String.format(Locale.ROOT, "%.2f", histogram.getCount() / seconds));
+            report.setProperty("op." + op + ".p50Millis", millis(histogram.getValueAtQuantile(0.50)));
+            report.setProperty("op." + op + ".p90Millis", millis(histogram.getValueAtQuantile(0.90)));
+            report.setProperty("op." + op + ".p99Millis", millis(histogram.getValueAtQuantile(0.99)));
+            report.setProperty("op." + op + ".p999Millis", millis(histogram.getValueAtQuantile(0.999)));
+            report.setProperty("op." + op + ".maxMillis", millis(histogram.getMax()));
+        }
+        return report;
+    }
+
+    // Seats a party at a free table and opens an order for it
+    private void host() {
+        while (running) {
+            think(meanThinkMillis);
+            List<RestaurantTable> tables = tableService.getAvailableTables();
+            if (tables.isEmpty()) {
+                tablesUnavailable.increment();
+                continue;
+            }
+            int tableId = tables.get(ThreadLocalRandom.current().nextInt(tables.size())).getId();
+            if (!tableService.seatParty(tableId)) {
+                tablesUnavailable.increment();
+                continue;
+            }
+            int orderId = time("createOrder", () -> orderService.createOrder(tableId, "Guest"), id -> id > 0);
+            if (orderId > 0) {
+                seatedOrders.add(new int[] {orderId, tableId});
+            } else {
+                tableService.releaseTable(tableId);
+            }
+        }
+    }
+
+    // Takes orders, sends them to the kitchen and later marks them served
+    private void waiter() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            int[] order = take(seatedOrders);
+            if (order == null) {
+                continue;
+            }
+            int lines = 1 + random.nextInt(4);
+            for (int i = 0; i < lines && running; i++) {
+                think(meanThinkMillis / 2);
+                int menuItemId = menuItemIds[random.nextInt(menuItemIds.length)];
+                time("addItemToOrder", () -> orderService.addItemToOrder(order[0], menuItemId, 1 + random.nextInt(3)), ok -> ok);
+            }
+            time("updateOrderStatus", () -> orderService.updateOrderStatus(order[0], "PREPARING"), ok -> ok);
+            think(meanThinkMillis * 2);
+            if (time("updateOrderStatus", () -> orderService.updateOrderStatus(order[0], "COMPLETED"), ok -> ok)) {
+                completedOrders.add(order);
+            }
+        }
+    }
+
+    // Bills completed orders, takes payment and frees the table
+    private void cashier() {
+        while (running) {
+            int[] order = take(completedOrders);
+            if (order == null) {
+                continue;
+            }
+            Bill bill = time("generateBill", () -> billingService.generateBill(order[0]), b -> b != null);
+            think(meanThinkMillis);
+            if (bill != null) {
+                time("markBillAsPaid", () -> billingService.markBillAsPaid(bill.getId()), ok -> ok);
+            }
+            tableService.releaseTable(order[1]);
+        }
+    }
+
+    private <T> T time(String op, Supplier<T> call, Predicate<T> succeeded) {
+        long start = System.nanoTime();
+        T result = null;
+        boolean ok = false;
+        try {
+            result = call.get();
+            ok = succeeded.test(result);
+        } catch (RuntimeException e) {
+            System.err.println("Error in " + op + ": " + e.getMessage());
+        }
+        latencies.get(op).record(System.nanoTime() - start);
+        // Calls cut short by the shutdown interrupt are not the system's fault
+        if (!ok && running) {
+            errors.get(op).increment();
+        }
+        return result;
+    }
+
+    private int[] take(BlockingQueue<int[]> queue) {
+        try {
+            return queue.poll(200, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    // Exponentially distributed pauses, so staff do not move in lockstep
+    private void think(long meanMillis) {
+        if (meanMillis <= 0 || !running) {
+            return;
+        }
+        double pause = -meanMillis * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        try {
+            Thread.sleep(Math.min((long) pause, meanMillis * 10));
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    static Properties loadReport(String path) throws java.io.IOException {
+        Properties report = new Properties();
+        try (java.io.Reader reader = new java.io.FileReader(path)) {
+            report.load(reader);
+        }
+        return report;
+    }
+
+    // With a baseline, each figure is followed by its change against that run
+    static void printReport(Properties report, Properties baseline) {
+        System.out.printf("Ran %s s, %s seat attempts found no table%n",
+                report.getProperty("run.seconds"), report.getProperty("run.tablesUnavailable"));
+        System.out.printf("%-20s %10s %8s %12s %10s %10s %10s %10s%n",
+                "operation", "calls", "errors", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (String op : OPERATIONS) {
+            String prefix = "op." + op + ".";
+            System.out.printf("%-20s %10s %8s %12s %10s %10s %10s %10s%n", op,
+                    report.getProperty(prefix + "count"), report.getProperty(prefix + "errors"),
+                    compare(report, baseline, prefix + "throughput"), compare(report, baseline, prefix + "p50Millis"),
+                    compare(report, baseline, prefix + "p99Millis"), compare(report, baseline, prefix + "p999Millis"),
+                    compare(report, baseline, prefix + "maxMillis"));
+        }
+    }
+
+    private static String compare(Properties report, Properties baseline, String key) {
+        String value = report.getProperty(key);
+        String previous = baseline != null ? baseline.getProperty(key) : null;
+        if (previous == null || Double.parseDouble(previous) == 0) {
+            return value;
+        }
+        double change = (Double.parseDouble(value) - Double.parseDouble(previous)) / Double.parseDouble(previous) * 100;
+        return String.format(Locale.ROOT, "%s(%+.0f%%)", value, change);
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Kitchen Display Benchmark: java KitchenDisplayBenchmark [tickets] [readers]
+public class KitchenDisplayBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int readerCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        TicketRingBuffer ring = new TicketRingBuffer(1 << 16);
+
+        long[][] latencies = new long[readerCount][];
+        long[] missed = new long[readerCount];
+        CountDownLatch ready = new CountDownLatch(readerCount);
+        Thread[] readers = new Thread[readerCount];
+        for (int r = 0; r < readerCount; r++) {
+            int index = r;
+            TicketRingBuffer.Reader reader = ring.newReader();
+            readers[r] = new Thread(() -> {
+                long[] samples = new long[tickets];
+                List<KitchenTicket> batch = new ArrayList<>(256);
+                int received = 0;
+                ready.countDown();
+                while (received + reader.getMissedCount() < tickets) {
+                    batch.clear();
+                    reader.awaitDrainTo(batch, 256, 10, TimeUnit.MILLISECONDS);
+                    long now = System.nanoTime();
+                    for (KitchenTicket ticket : batch) {
+                        samples[received++] = now - ticket.getCreatedNanos();
+                    }
+                }
+                latencies[index] = Arrays.copyOf(samples, received);
+                missed[index] = reader.getMissedCount();
+            }, "station-" + r);
+            readers[r].start();
+        }
+        ready.await();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < tickets; i++) {
+            ring.publish(new KitchenTicket(KitchenTicket.Kind.ITEM_ADDED, i, 1, "Item", "Main", 1, null, System.nanoTime()));
+        }
+        long publishNanos = System.nanoTime() - start;
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        long totalNanos = System.nanoTime() - start;
+
+        System.out.printf("Published %,d tickets in %.1f ms (%,.0f tickets/s)%n",
+                tickets, publishNanos / 1e6, tickets / (publishNanos / 1e9));
+        System.out.printf("Delivered to %d readers in %.1f ms (%,.0f tickets/s per reader)%n",
+                readerCount, totalNanos / 1e6, tickets / (totalNanos / 1e9));
+        for (int r = 0; r < readerCount; r++) {
+            long[] samples = latencies[r];
+            Arrays.sort(samples);
+            System.out.printf("  reader %d: received=%,d missed=%,d p50=%.1fus p99=%.1fus max=%.1fus%n",
+                    r, samples.length, missed[r],
+                    percentile(samples, 0.50) / 1e3, percentile(samples, 0.99) / 1e3,
+                    samples.length == 0 ? 0 : samples[samples.length - 1] / 1e3);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))];
+    }
+}
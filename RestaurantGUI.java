@@ -1,11 +1,26 @@
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class RestaurantGUI extends JFrame {
     // Services
@@ -14,27 +29,60 @@ public class RestaurantGUI extends JFrame {
     private TableManagementService tableService = new TableManagementService();
     private OrderManagementService orderService = new OrderManagementService();
     private BillingService billingService = new BillingService();
+    private OrderTotalVerifier totalVerifier = new OrderTotalVerifier(
+            Integer.getInteger("restaurant.orders.verifyBatchSize", 1000),
+            Long.getLong("restaurant.orders.verifyIntervalMillis", 600_000L));
 
     // Current user
     private User currentUser = null;
 
+    // Schema check and the other startup tasks; login waits on it, the login screen does not
+    private CompletableFuture<Void> startup;
+    private static final OperationStats STARTUP_DATABASE = ServiceMetrics.operation("Startup.database");
+    private static final OperationStats STARTUP_LOGIN_SCREEN = ServiceMetrics.operation("Startup.loginScreen");
+    private static final OperationStats STARTUP_MAIN_SCREEN = ServiceMetrics.operation("Startup.mainScreen");
+    private static final long LAUNCHED = System.nanoTime();
+
+    // Tabs not opened yet, keyed by their placeholder panel
+    private final Map<Component, Supplier<JPanel>> pendingTabs = new HashMap<>();
+
+    // Background requests still running, by what they load; touched only on the EDT
+    private final Map<String, CompletableFuture<?>> inFlight = new HashMap<>();
+    private EventBus.Subscription eventSubscription;
+    private long eventBatchCounter;
+
     // UI Components
     private JTabbedPane tabbedPane;
     private JPanel loginPanel, mainPanel;
     private JTextField usernameField, passwordField;
     private JButton loginButton, registerButton;
+    private JLabel startupLabel;
 
     // Menu Management Components
     private JTable menuTable;
-    private DefaultTableModel menuTableModel;
+    private MenuTableModel menuTableModel;
 
     // Order Management Components
     private JTable ordersTable;
-    private DefaultTableModel ordersTableModel;
+    private OrdersTableModel ordersTableModel;
+    private JButton loadMoreOrdersButton;
+    private OrderPage lastOrdersPage;
+    private static final int ORDERS_PAGE_SIZE = 100;
+    private static final int TYPEAHEAD_RESULTS = 25;
+    // Rows left below the viewport when the next page is fetched
+    private static final int ORDERS_PREFETCH_ROWS = 30;
 
     // Table Management Components
     private JTable tablesTable;
-    private DefaultTableModel tablesTableModel;
+    private TablesTableModel tablesTableModel;
+
+    // Kitchen Display Components
+    private KitchenStation kitchenStation;
+    private Timer kitchenTimer;
+    private static final int KITCHEN_MAX_ROWS = 200;
+
+    // Returned in place of an order id when another host seated the table first
+    private static final int TABLE_TAKEN = -2;
     // Add this inside RestaurantGUI class, not inside main
     private static void setUIFont(Font f) {
         java.util.Enumeration<Object> keys = UIManager.getDefaults().keys();
@@ -49,14 +97,43 @@ public class RestaurantGUI extends JFrame {
 
     // Constructor
     public RestaurantGUI() {
-        initializeDatabase();
+        startup = initializeDatabase();
         initializeUI();
+        SwingUtilities.invokeLater(() -> reportStartup(STARTUP_LOGIN_SCREEN, LAUNCHED));
     }
 
-    private void initializeDatabase() {
-        DatabaseManager.initializeDatabase();
-        // Create default admin if not exists
-        userService.registerUser("admin", "admin123", "ADMIN");
+    // The schema comes first; after it the independent tasks run side by side
+    // A failed start is shown on the login screen, and the next login attempt retries it
+    private CompletableFuture<Void> initializeDatabase() {
+        long started = System.nanoTime();
+        return ServiceExecutor.supply(() -> {
+            if (!DatabaseManager.initializeDatabase()) {
+                throw new IllegalStateException("the database schema could not be brought up to date");
+            }
+            return null;
+        }).thenCompose(ignored -> CompletableFuture.allOf(
+                ServiceExecutor.supply(() -> userService.ensureDefaultAdmin()),
+                ServiceExecutor.supply(() -> TaxEngine.getInstance().current()),
+                ServiceExecutor.supply(() -> {
+                    totalVerifier.start();
+                    return null;
+                })
+        )).whenComplete((ignored, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                System.err.println("Error during startup: " + cause.getMessage());
+                STARTUP_DATABASE.recordError();
+                SwingUtilities.invokeLater(() -> startupLabel.setText("Startup failed: " + cause.getMessage() + ". Press Login to retry."));
+            }
+            reportStartup(STARTUP_DATABASE, started);
+        });
+    }
+
+    // Startup spans cross threads, so they are timed here rather than with begin/end
+    private static void reportStartup(OperationStats stats, long started) {
+        long elapsed = System.nanoTime() - started;
+        stats.record(elapsed);
+        System.out.println(stats.getName() + " ready in " + elapsed / 1_000_000 + " ms");
     }
 
     private void initializeUI() {
@@ -110,23 +187,92 @@ public class RestaurantGUI extends JFrame {
         buttonPanel.add(loginButton);
         buttonPanel.add(registerButton);
         loginPanel.add(buttonPanel, gbc);
+
+        gbc.gridy = 4;
+        startupLabel = new JLabel(" ", JLabel.CENTER);
+        startupLabel.setForeground(Color.RED);
+        loginPanel.add(startupLabel, gbc);
+    }
+
+    // Runs a read off the EDT and applies its result back on the EDT.
+    // A newer request under the same key cancels the one still in flight, so only use it for idempotent reads.
+    private <T> void runAsync(String key, CompletableFuture<T> future, Consumer<T> onSuccess) {
+        CompletableFuture<?> previous = inFlight.put(key, future);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (inFlight.get(key) == future) {
+                inFlight.remove(key);
+            }
+        }));
+        runWrite(future, onSuccess);
+    }
+
+    // Applies a write's result on the EDT. Writes are never cancelled or superseded:
+    // the change goes ahead regardless, and the user needs to hear whether it did.
+    private <T> void runWrite(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                JOptionPane.showMessageDialog(this, "Request failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            onSuccess.accept(result);
+        }));
+    }
+
+    private void cancelAllRequests() {
+        for (CompletableFuture<?> future : inFlight.values()) {
+            future.cancel(true);
+        }
+        inFlight.clear();
     }
 
     private void login() {
         String username = usernameField.getText();
         String password = passwordField.getText();
 
-        currentUser = userService.authenticateUser(username, password);
-        if (currentUser != null) {
-            JOptionPane.showMessageDialog(this, "Login successful! Welcome, " + currentUser.getUsername());
-            createMainPanel();
-            getContentPane().removeAll();
-            getContentPane().add(mainPanel);
-            revalidate();
-            repaint();
-        } else {
-            JOptionPane.showMessageDialog(this, "Invalid credentials!", "Error", JOptionPane.ERROR_MESSAGE);
+        loginButton.setEnabled(false);
+        long started = System.nanoTime();
+        CompletableFuture<User> authentication = awaitStartup().thenCompose(ignored -> userService.authenticateUserAsync(username, password));
+        authentication.whenComplete((user, error) -> SwingUtilities.invokeLater(() -> {
+            loginButton.setEnabled(true);
+            // Failed attempts end their span too, counted as errors
+            if (error != null || user == null) {
+                STARTUP_MAIN_SCREEN.recordError();
+                STARTUP_MAIN_SCREEN.record(System.nanoTime() - started);
+            }
+        }));
+        runAsync("login", authentication, user -> {
+            currentUser = user;
+            if (currentUser != null) {
+                createMainPanel();
+                getContentPane().removeAll();
+                getContentPane().add(mainPanel);
+                revalidate();
+                repaint();
+                // Reported from inside the welcome dialog's event loop, after the main screen has painted
+                SwingUtilities.invokeLater(() -> reportStartup(STARTUP_MAIN_SCREEN, started));
+                JOptionPane.showMessageDialog(this, "Login successful! Welcome, " + currentUser.getUsername());
+            } else {
+                JOptionPane.showMessageDialog(this, "Invalid credentials!", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+    }
+
+    // Login and registration wait for the schema; a start that failed is retried here
+    private CompletableFuture<Void> awaitStartup() {
+        if (startup.isCompletedExceptionally()) {
+            startupLabel.setText("Retrying startup...");
+            startup = initializeDatabase();
         }
+        CompletableFuture<Void> attempt = startup;
+        attempt.thenRun(() -> SwingUtilities.invokeLater(() -> startupLabel.setText(" ")));
+        return attempt;
     }
 
     private void register() {
@@ -142,11 +288,13 @@ public class RestaurantGUI extends JFrame {
                 JOptionPane.QUESTION_MESSAGE, null, new String[]{"STAFF", "ADMIN"}, "STAFF");
 
         if (role != null) {
-            if (userService.registerUser(username, password, role)) {
-                JOptionPane.showMessageDialog(this, "User registered successfully!");
-            } else {
-                JOptionPane.showMessageDialog(this, "Registration failed! Username might already exist.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            runWrite(awaitStartup().thenCompose(ignored -> userService.registerUserAsync(username, password, role)), registered -> {
+                if (registered) {
+                    JOptionPane.showMessageDialog(this, "User registered successfully!");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Registration failed! Username might already exist.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -170,23 +318,145 @@ public class RestaurantGUI extends JFrame {
         // Create tabbed pane
         tabbedPane = new JTabbedPane();
 
-        // Add tabs based on user role
+        // Add tabs based on user role; each is built and loaded the first time it is selected
+        pendingTabs.clear();
         if (currentUser.getRole().equals("ADMIN") || currentUser.getRole().equals("STAFF")) {
-            tabbedPane.addTab("Menu Management", createMenuManagementPanel());
-            tabbedPane.addTab("Order Management", createOrderManagementPanel());
-            tabbedPane.addTab("Table Management", createTableManagementPanel());
-            tabbedPane.addTab("Billing System", createBillingPanel());
+            addLazyTab("Menu Management", this::createMenuManagementPanel);
+            addLazyTab("Order Management", this::createOrderManagementPanel);
+            addLazyTab("Table Management", this::createTableManagementPanel);
+            addLazyTab("Billing System", this::createBillingPanel);
+            addLazyTab("Kitchen Display", this::createKitchenPanel);
+            // Opened now so tickets from the start of the shift are waiting when the tab is first shown
+            kitchenStation = KitchenDisplay.getInstance().openStation("GUI", ticket -> true);
 
             if (currentUser.getRole().equals("ADMIN")) {
-                tabbedPane.addTab("User Management", createUserManagementPanel());
+                addLazyTab("User Management", this::createUserManagementPanel);
+                addLazyTab("Sales Reports", this::createReportsPanel);
+                addLazyTab("Diagnostics", this::createDiagnosticsPanel);
             }
         }
+        tabbedPane.addChangeListener(e -> buildSelectedTab());
+        buildSelectedTab();
 
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
+
+        // Keep the tables current from service events instead of polling
+        eventSubscription = EventBus.getInstance().subscribe(EnumSet.allOf(RestaurantEvent.Type.class),
+                events -> SwingUtilities.invokeLater(() -> applyEvents(events)));
+    }
+
+    private void addLazyTab(String title, Supplier<JPanel> builder) {
+        JPanel placeholder = new JPanel(new BorderLayout());
+        pendingTabs.put(placeholder, builder);
+        tabbedPane.addTab(title, placeholder);
+    }
+
+    private void buildSelectedTab() {
+        int index = tabbedPane.getSelectedIndex();
+        if (index == -1) {
+            return;
+        }
+        Component placeholder = tabbedPane.getComponentAt(index);
+        Supplier<JPanel> builder = pendingTabs.remove(placeholder);
+        if (builder != null) {
+            ((JPanel) placeholder).add(builder.get(), BorderLayout.CENTER);
+            placeholder.revalidate();
+        }
+    }
+
+    // Applies a batch of changes row by row instead of reloading whole tables
+    private void applyEvents(List<RestaurantEvent> events) {
+        if (currentUser == null) {
+            return;
+        }
+        Set<Integer> changedOrders = new LinkedHashSet<>();
+        Set<Integer> changedMenuItems = new LinkedHashSet<>();
+        for (RestaurantEvent event : events) {
+            switch (event.getType()) {
+                case ORDER_CREATED:
+                case ITEM_ADDED:
+                case ITEM_REMOVED:
+                case ORDER_STATUS_CHANGED:
+                    changedOrders.add(event.getOrderId());
+                    break;
+                case TABLE_STATUS_CHANGED:
+                    applyTableStatus(event.getTableId(), event.getStatus());
+                    break;
+                case MENU_ITEM_CHANGED:
+                    changedMenuItems.add(event.getMenuItemId());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        long batch = ++eventBatchCounter;
+        if (!changedOrders.isEmpty() && ordersTableModel != null) {
+            runAsync("orderDeltas-" + batch, orderService.getOrderSummariesAsync(changedOrders), this::applyOrderRows);
+        }
+        if (!changedMenuItems.isEmpty() && menuTableModel != null) {
+            CompletableFuture<Map<Integer, MenuItem>> items = ServiceExecutor.supply(() -> {
+                Map<Integer, MenuItem> byId = new HashMap<>();
+                for (int id : changedMenuItems) {
+                    byId.put(id, menuService.getMenuItemById(id));
+                }
+                return byId;
+            });
+            runAsync("menuDeltas-" + batch, items, this::applyMenuRows);
+        }
+    }
+
+    private void applyOrderRows(List<Order> orders) {
+        for (Order order : orders) {
+            ordersTableModel.upsert(order);
+        }
+    }
+
+    private void applyMenuRows(Map<Integer, MenuItem> items) {
+        for (Map.Entry<Integer, MenuItem> entry : items.entrySet()) {
+            MenuItem item = entry.getValue();
+            if (item != null) {
+                menuTableModel.upsert(item);
+                continue;
+            }
+            int row = menuTableModel.findRow(entry.getKey());
+            if (row != -1) {
+                menuTableModel.removeRow(row);
+            }
+        }
+    }
+
+    private void applyTableStatus(int tableId, String status) {
+        if (tablesTableModel == null) {
+            return;
+        }
+        int row = tablesTableModel.findRow(tableId);
+        if (row == -1) {
+            // A table we have never seen: its number and capacity are not in the event
+            refreshTablesTable();
+        } else {
+            tablesTableModel.setStatus(row, status);
+        }
     }
 
     private void logout() {
+        cancelAllRequests();
+        if (kitchenTimer != null) {
+            kitchenTimer.stop();
+            kitchenTimer = null;
+        }
+        kitchenStation = null;
+        if (eventSubscription != null) {
+            eventSubscription.unsubscribe();
+            eventSubscription = null;
+        }
+        loginButton.setEnabled(true);
         currentUser = null;
+        // Models of tabs the next user may never open must not keep taking events
+        pendingTabs.clear();
+        menuTableModel = null;
+        ordersTableModel = null;
+        tablesTableModel = null;
         getContentPane().removeAll();
         getContentPane().add(loginPanel);
         revalidate();
@@ -197,13 +467,7 @@ public class RestaurantGUI extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
 
         // Table for menu items
-        String[] columns = {"ID", "Name", "Category", "Price", "Available", "Description"};
-        menuTableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        menuTableModel = new MenuTableModel();
         menuTable = new JTable(menuTableModel);
         JScrollPane scrollPane = new JScrollPane(menuTable);
 
@@ -235,18 +499,7 @@ public class RestaurantGUI extends JFrame {
     }
 
     private void refreshMenuTable() {
-        menuTableModel.setRowCount(0);
-        List<MenuItem> items = menuService.getAllMenuItems();
-        for (MenuItem item : items) {
-            menuTableModel.addRow(new Object[]{
-                    item.getId(),
-                    item.getName(),
-                    item.getCategory(),
-                    item.getPrice(),
-                    item.isAvailable() ? "Yes" : "No",
-                    item.getDescription()
-            });
-        }
+        runAsync("menu", menuService.getAllMenuItemsAsync(), items -> menuTableModel.setItems(items));
     }
 
     private void addMenuItem() {
@@ -278,22 +531,29 @@ public class RestaurantGUI extends JFrame {
         if (result == JOptionPane.OK_OPTION) {
             try {
                 BigDecimal price = new BigDecimal(priceField.getText());
-                if (menuService.addMenuItem(nameField.getText(), categoryField.getText(),
-                        price, descriptionArea.getText())) {
-
+                String name = nameField.getText();
+                String category = categoryField.getText();
+                String description = descriptionArea.getText();
+                boolean available = availabilityCombo.getSelectedItem().equals("Yes");
+                CompletableFuture<Boolean> added = ServiceExecutor.supply(() -> {
+                    if (!menuService.addMenuItem(name, category, price, description)) {
+                        return false;
+                    }
                     // ✅ NEW: Get the menu item ID and set availability
                     List<MenuItem> items = menuService.getAllMenuItems();
                     if (!items.isEmpty()) {
                         MenuItem lastItem = items.get(items.size() - 1);
-                        boolean available = availabilityCombo.getSelectedItem().equals("Yes");
                         menuService.updateItemAvailability(lastItem.getId(), available);
                     }
-
-                    JOptionPane.showMessageDialog(this, "Menu item added successfully!");
-                    refreshMenuTable();
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to add menu item!", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                    return true;
+                });
+                runWrite(added, ok -> {
+                    if (ok) {
+                        JOptionPane.showMessageDialog(this, "Menu item added successfully!");
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to add menu item!", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Invalid price format!", "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -308,8 +568,10 @@ public class RestaurantGUI extends JFrame {
         }
 
         int id = (int) menuTableModel.getValueAt(selectedRow, 0);
-        MenuItem item = menuService.getMenuItemById(id);
+        runAsync("editMenuItem", menuService.getMenuItemByIdAsync(id), item -> showEditMenuItemDialog(id, item));
+    }
 
+    private void showEditMenuItemDialog(int id, MenuItem item) {
         if (item != null) {
             JTextField nameField = new JTextField(item.getName());
             JTextField categoryField = new JTextField(item.getCategory());
@@ -339,18 +601,25 @@ public class RestaurantGUI extends JFrame {
             if (result == JOptionPane.OK_OPTION) {
                 try {
                     BigDecimal price = new BigDecimal(priceField.getText());
-                    if (menuService.updateMenuItem(id, nameField.getText(), categoryField.getText(),
-                            price, descriptionArea.getText())) {
-
+                    String name = nameField.getText();
+                    String category = categoryField.getText();
+                    String description = descriptionArea.getText();
+                    boolean available = availabilityCombo.getSelectedItem().equals("Yes");
+                    CompletableFuture<Boolean> updated = ServiceExecutor.supply(() -> {
+                        if (!menuService.updateMenuItem(id, name, category, price, description)) {
+                            return false;
+                        }
                         // ✅ NEW: Update availability based on combo box selection
-                        boolean available = availabilityCombo.getSelectedItem().equals("Yes");
                         menuService.updateItemAvailability(id, available);
-
-                        JOptionPane.showMessageDialog(this, "Menu item updated successfully!");
-                        refreshMenuTable();
-                    } else {
-                        JOptionPane.showMessageDialog(this, "Failed to update menu item!", "Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                        return true;
+                    });
+                    runWrite(updated, ok -> {
+                        if (ok) {
+                            JOptionPane.showMessageDialog(this, "Menu item updated successfully!");
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Failed to update menu item!", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    });
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(this, "Invalid price format!", "Error", JOptionPane.ERROR_MESSAGE);
                 }
@@ -369,12 +638,13 @@ public class RestaurantGUI extends JFrame {
                 "Confirm Delete", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            if (menuService.deleteMenuItem(id)) {
-                JOptionPane.showMessageDialog(this, "Menu item deleted successfully!");
-                refreshMenuTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete menu item!", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            runWrite(menuService.deleteMenuItemAsync(id), deleted -> {
+                if (deleted) {
+                    JOptionPane.showMessageDialog(this, "Menu item deleted successfully!");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete menu item!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -388,43 +658,51 @@ public class RestaurantGUI extends JFrame {
         int id = (int) menuTableModel.getValueAt(selectedRow, 0);
         boolean currentAvailability = menuTableModel.getValueAt(selectedRow, 4).equals("Yes");
 
-        if (menuService.updateItemAvailability(id, !currentAvailability)) {
-            JOptionPane.showMessageDialog(this, "Menu item availability updated!");
-            refreshMenuTable();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to update availability!", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        runWrite(menuService.updateItemAvailabilityAsync(id, !currentAvailability), updated -> {
+            if (updated) {
+                JOptionPane.showMessageDialog(this, "Menu item availability updated!");
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to update availability!", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 
     private JPanel createOrderManagementPanel() {
         JPanel panel = new JPanel(new BorderLayout());
 
         // Table for orders
-        String[] columns = {"ID", "Table ID", "Customer", "Status", "Total", "Order Time"};
-        ordersTableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        ordersTableModel = new OrdersTableModel();
         ordersTable = new JTable(ordersTableModel);
         JScrollPane scrollPane = new JScrollPane(ordersTable);
 
+        // Fetch the next page before the user scrolls off the end of what is loaded
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            BoundedRangeModel range = ((JScrollBar) e.getAdjustable()).getModel();
+            int remaining = range.getMaximum() - range.getValue() - range.getExtent();
+            // The button is enabled only while there is more and no page is loading
+            if (remaining < ordersTable.getRowHeight() * ORDERS_PREFETCH_ROWS && loadMoreOrdersButton.isEnabled()) {
+                loadMoreOrders();
+            }
+        });
+
         // Buttons
         JPanel buttonPanel = new JPanel(new FlowLayout());
         JButton refreshButton = new JButton("Refresh");
+        loadMoreOrdersButton = new JButton("Load More");
         JButton createButton = new JButton("Create Order");
         JButton addItemsButton = new JButton("Add Items");
         JButton viewDetailsButton = new JButton("View Details");
         JButton updateStatusButton = new JButton("Update Status");
 
         refreshButton.addActionListener(e -> refreshOrdersTable());
+        loadMoreOrdersButton.addActionListener(e -> loadMoreOrders());
         createButton.addActionListener(e -> createOrder());
         addItemsButton.addActionListener(e -> addItemsToOrder());
         viewDetailsButton.addActionListener(e -> viewOrderDetails());
         updateStatusButton.addActionListener(e -> updateOrderStatus());
 
         buttonPanel.add(refreshButton);
+        buttonPanel.add(loadMoreOrdersButton);
         buttonPanel.add(createButton);
         buttonPanel.add(addItemsButton);
         buttonPanel.add(viewDetailsButton);
@@ -438,24 +716,33 @@ public class RestaurantGUI extends JFrame {
     }
 
     private void refreshOrdersTable() {
-        ordersTableModel.setRowCount(0);
-        List<Order> orders = orderService.getAllOrders();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        loadMoreOrdersButton.setEnabled(false);
+        runAsync("orders", orderService.getOrdersPageAsync(null, ORDERS_PAGE_SIZE), page -> {
+            ordersTableModel.clear();
+            lastOrdersPage = null;
+            appendOrdersPage(page);
+        });
+    }
 
-        for (Order order : orders) {
-            ordersTableModel.addRow(new Object[]{
-                    order.getId(),
-                    order.getTableId(),
-                    order.getCustomerName(),
-                    order.getStatus(),
-                    order.getTotalAmount(),
-                    order.getOrderTime().format(formatter)
-            });
+    // Appends the next page of orders; only the visible history is ever loaded
+    private void loadMoreOrders() {
+        loadMoreOrdersButton.setEnabled(false);
+        runAsync("orders", orderService.getOrdersPageAsync(lastOrdersPage, ORDERS_PAGE_SIZE), this::appendOrdersPage);
+    }
+
+    private void appendOrdersPage(OrderPage page) {
+        if (!page.getOrders().isEmpty()) {
+            lastOrdersPage = page;
         }
+        loadMoreOrdersButton.setEnabled(page.hasMore());
+        ordersTableModel.append(page.getOrders());
     }
 
     private void createOrder() {
-        List<RestaurantTable> availableTables = tableService.getAvailableTables();
+        runAsync("createOrder", tableService.getAvailableTablesAsync(), this::showCreateOrderDialog);
+    }
+
+    private void showCreateOrderDialog(List<RestaurantTable> availableTables) {
         if (availableTables.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No available tables!", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -482,15 +769,27 @@ public class RestaurantGUI extends JFrame {
             int tableId = availableTables.get(selectedTableIndex).getId();
             String customerName = customerField.getText();
 
-            int orderId = orderService.createOrder(tableId, customerName);
-            if (orderId > 0) {
-                // Update table status to occupied
-                tableService.updateTableStatus(tableId, "OCCUPIED");
-                JOptionPane.showMessageDialog(this, "Order created successfully! Order ID: " + orderId);
-                refreshOrdersTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to create order!", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            CompletableFuture<Integer> creation = ServiceExecutor.supply(() -> {
+                // Seat first so two hosts can never open orders on the same table
+                if (!tableService.seatParty(tableId)) {
+                    return TABLE_TAKEN;
+                }
+                int orderId = orderService.createOrder(tableId, customerName);
+                if (orderId <= 0) {
+                    tableService.releaseTable(tableId);
+                }
+                return orderId;
+            });
+            runWrite(creation, orderId -> {
+                if (orderId == TABLE_TAKEN) {
+                    JOptionPane.showMessageDialog(this, "That table was just taken. Please pick another.",
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (orderId > 0) {
+                    JOptionPane.showMessageDialog(this, "Order created successfully! Order ID: " + orderId);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to create order!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -502,50 +801,138 @@ public class RestaurantGUI extends JFrame {
         }
 
         int orderId = (int) ordersTableModel.getValueAt(selectedRow, 0);
-        Order order = orderService.getOrderById(orderId);
+        // Loads the menu first if it is missing or stale, so the typeahead has something to search
+        CompletableFuture<Order> order = orderService.getOrderByIdAsync(orderId)
+                .thenCombine(menuService.getAllMenuItemsAsync(), (found, menu) -> found);
+        runAsync("addItems", order, found -> showAddItemsDialog(orderId, found));
+    }
 
+    private void showAddItemsDialog(int orderId, Order order) {
         if (order == null) {
             JOptionPane.showMessageDialog(this, "Order not found!", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        // Get available menu items
-        List<MenuItem> availableItems = menuService.getAllMenuItems().stream()
-                .filter(MenuItem::isAvailable)
-                .toList();
-
-        if (availableItems.isEmpty()) {
+        if (menuService.searchLoadedMenuItems("", 1, true).isEmpty()) {
             JOptionPane.showMessageDialog(this, "No available menu items!", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        String[] itemOptions = availableItems.stream()
-                .map(item -> item.getName() + " - $" + item.getPrice())
-                .toArray(String[]::new);
-
-        JComboBox<String> itemCombo = new JComboBox<>(itemOptions);
+        // Typeahead: every keystroke searches the menu already in memory and lists the best matches
+        JTextField searchField = new JTextField(20);
+        DefaultListModel<MenuItem> matchModel = new DefaultListModel<>();
+        JList<MenuItem> matchList = new JList<>(matchModel);
+        matchList.setVisibleRowCount(8);
+        matchList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                MenuItem item = (MenuItem) value;
+                String text = item.getName() + " - $" + item.getPrice() + " (" + item.getCategory() + ")";
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        Runnable updateMatches = () -> {
+            matchModel.clear();
+            matchModel.addAll(menuService.searchLoadedMenuItems(searchField.getText(), TYPEAHEAD_RESULTS, true));
+            if (!matchModel.isEmpty()) {
+                matchList.setSelectedIndex(0);
+            }
+        };
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { updateMatches.run(); }
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { updateMatches.run(); }
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { updateMatches.run(); }
+        });
+        // Arrow keys move through the matches without leaving the search box
+        searchField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                int index = matchList.getSelectedIndex();
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && index < matchModel.getSize() - 1) {
+                    matchList.setSelectedIndex(index + 1);
+                } else if (e.getKeyCode() == KeyEvent.VK_UP && index > 0) {
+                    matchList.setSelectedIndex(index - 1);
+                } else {
+                    return;
+                }
+                matchList.ensureIndexIsVisible(matchList.getSelectedIndex());
+                e.consume();
+            }
+        });
+        updateMatches.run();
         JSpinner quantitySpinner = new JSpinner(new SpinnerNumberModel(1, 1, 100, 1));
 
-        JPanel panel = new JPanel(new GridLayout(0, 1));
-        panel.add(new JLabel("Select Menu Item:"));
-        panel.add(itemCombo);
-        panel.add(new JLabel("Quantity:"));
-        panel.add(quantitySpinner);
+        // The whole ticket is built here and submitted in a single call
+        List<OrderLine> ticket = new ArrayList<>();
+        DefaultListModel<String> ticketModel = new DefaultListModel<>();
+        JList<String> ticketList = new JList<>(ticketModel);
+        ticketList.setVisibleRowCount(6);
+        JButton addLineButton = new JButton("Add to Ticket");
+        JButton removeLineButton = new JButton("Remove Selected");
+
+        addLineButton.addActionListener(e -> {
+            MenuItem item = matchList.getSelectedValue();
+            if (item == null) {
+                return;
+            }
+            int quantity = (int) quantitySpinner.getValue();
+            ticket.add(new OrderLine(item.getId(), quantity));
+            ticketModel.addElement(item.getName() + " x" + quantity);
+        });
+        removeLineButton.addActionListener(e -> {
+            int index = ticketList.getSelectedIndex();
+            if (index != -1) {
+                ticket.remove(index);
+                ticketModel.remove(index);
+            }
+        });
+
+        JPanel linePanel = new JPanel(new FlowLayout());
+        linePanel.add(addLineButton);
+        linePanel.add(removeLineButton);
+
+        // Enter in the search box adds the highlighted match
+        searchField.addActionListener(e -> addLineButton.doClick());
+
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 5));
+        searchPanel.add(new JLabel("Search Menu Item:"), BorderLayout.NORTH);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        searchPanel.add(new JScrollPane(matchList), BorderLayout.SOUTH);
+        JPanel pickerPanel = new JPanel(new GridLayout(0, 1));
+        pickerPanel.add(new JLabel("Quantity:"));
+        pickerPanel.add(quantitySpinner);
+        pickerPanel.add(linePanel);
+        JPanel northPanel = new JPanel(new BorderLayout(5, 5));
+        northPanel.add(searchPanel, BorderLayout.NORTH);
+        northPanel.add(pickerPanel, BorderLayout.SOUTH);
+        panel.add(northPanel, BorderLayout.NORTH);
+        panel.add(new JScrollPane(ticketList), BorderLayout.CENTER);
 
         int result = JOptionPane.showConfirmDialog(this, panel, "Add Items to Order",
                 JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
 
         if (result == JOptionPane.OK_OPTION) {
-            int selectedItemIndex = itemCombo.getSelectedIndex();
-            int menuItemId = availableItems.get(selectedItemIndex).getId();
-            int quantity = (int) quantitySpinner.getValue();
-
-            if (orderService.addItemToOrder(orderId, menuItemId, quantity)) {
-                JOptionPane.showMessageDialog(this, "Item added to order successfully!");
-                refreshOrdersTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to add item to order!", "Error", JOptionPane.ERROR_MESSAGE);
+            // Nothing queued: add the item currently selected, as before
+            if (ticket.isEmpty()) {
+                MenuItem selected = matchList.getSelectedValue();
+                if (selected == null) {
+                    return;
+                }
+                ticket.add(new OrderLine(selected.getId(), (int) quantitySpinner.getValue()));
             }
+
+            runWrite(orderService.addItemsToOrderAsync(orderId, ticket), added -> {
+                if (added) {
+                    JOptionPane.showMessageDialog(this, ticket.size() + " item(s) added to order successfully!");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to add items to order!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -557,8 +944,10 @@ public class RestaurantGUI extends JFrame {
         }
 
         int orderId = (int) ordersTableModel.getValueAt(selectedRow, 0);
-        Order order = orderService.getOrderById(orderId);
+        runAsync("orderDetails", orderService.getOrderByIdAsync(orderId), this::showOrderDetails);
+    }
 
+    private void showOrderDetails(Order order) {
         if (order == null) {
             JOptionPane.showMessageDialog(this, "Order not found!", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -612,20 +1001,26 @@ public class RestaurantGUI extends JFrame {
 
         if (result == JOptionPane.OK_OPTION) {
             String newStatus = (String) statusCombo.getSelectedItem();
-            if (orderService.updateOrderStatus(orderId, newStatus)) {
+            CompletableFuture<Boolean> updated = ServiceExecutor.supply(() -> {
+                if (!orderService.updateOrderStatus(orderId, newStatus)) {
+                    return false;
+                }
                 // If order is completed or cancelled, free up the table
                 if (newStatus.equals("COMPLETED") || newStatus.equals("CANCELLED")) {
                     Order order = orderService.getOrderById(orderId);
                     if (order != null) {
-                        tableService.updateTableStatus(order.getTableId(), "AVAILABLE");
+                        tableService.releaseTable(order.getTableId());
                     }
                 }
-
-                JOptionPane.showMessageDialog(this, "Order status updated successfully!");
-                refreshOrdersTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update order status!", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+                return true;
+            });
+            runWrite(updated, ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Order status updated successfully!");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update order status!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -633,13 +1028,7 @@ public class RestaurantGUI extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
 
         // Table for tables
-        String[] columns = {"ID", "Table Number", "Capacity", "Status"};
-        tablesTableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tablesTableModel = new TablesTableModel();
         tablesTable = new JTable(tablesTableModel);
         JScrollPane scrollPane = new JScrollPane(tablesTable);
 
@@ -665,16 +1054,7 @@ public class RestaurantGUI extends JFrame {
     }
 
     private void refreshTablesTable() {
-        tablesTableModel.setRowCount(0);
-        List<RestaurantTable> tables = tableService.getAllTables();
-        for (RestaurantTable table : tables) {
-            tablesTableModel.addRow(new Object[]{
-                    table.getId(),
-                    table.getTableNumber(),
-                    table.getCapacity(),
-                    table.getStatus()
-            });
-        }
+        runAsync("tables", tableService.getAllTablesAsync(), tables -> tablesTableModel.setTables(tables));
     }
 
     private void addTable() {
@@ -695,12 +1075,13 @@ public class RestaurantGUI extends JFrame {
                 int tableNumber = Integer.parseInt(tableNumberField.getText());
                 int capacity = Integer.parseInt(capacityField.getText());
 
-                if (tableService.addTable(tableNumber, capacity)) {
-                    JOptionPane.showMessageDialog(this, "Table added successfully!");
-                    refreshTablesTable();
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to add table! Table number might already exist.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                runWrite(tableService.addTableAsync(tableNumber, capacity), added -> {
+                    if (added) {
+                        JOptionPane.showMessageDialog(this, "Table added successfully!");
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to add table! Table number might already exist.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Invalid number format!", "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -730,13 +1111,239 @@ public class RestaurantGUI extends JFrame {
 
         if (result == JOptionPane.OK_OPTION) {
             String newStatus = (String) statusCombo.getSelectedItem();
-            if (tableService.updateTableStatus(tableId, newStatus)) {
-                JOptionPane.showMessageDialog(this, "Table status updated successfully!");
-                refreshTablesTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update table status!", "Error", JOptionPane.ERROR_MESSAGE);
+            runWrite(tableService.updateTableStatusAsync(tableId, newStatus), updated -> {
+                if (updated) {
+                    JOptionPane.showMessageDialog(this, "Table status updated successfully!");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update table status!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        }
+    }
+
+    private JPanel createKitchenPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+
+        DefaultListModel<String> ticketModel = new DefaultListModel<>();
+        JList<String> ticketList = new JList<>(ticketModel);
+        ticketList.setFont(ticketList.getFont().deriveFont(Font.BOLD, 18f));
+        JLabel statusLabel = new JLabel(" ");
+
+        KitchenStation station = kitchenStation;
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+        // Polling a lock-free reader on the EDT is cheap: it never blocks and never touches the database
+        kitchenTimer = new Timer(250, e -> {
+            List<KitchenTicket> tickets = station.poll(KITCHEN_MAX_ROWS);
+            if (tickets.isEmpty()) {
+                return;
+            }
+            String time = LocalDateTime.now().format(formatter);
+            for (KitchenTicket ticket : tickets) {
+                ticketModel.add(0, time + "  " + ticket);
+            }
+            while (ticketModel.size() > KITCHEN_MAX_ROWS) {
+                ticketModel.remove(ticketModel.size() - 1);
+            }
+            statusLabel.setText(station.getMissedCount() > 0 ? "Missed tickets: " + station.getMissedCount() : " ");
+        });
+        kitchenTimer.start();
+
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(e -> ticketModel.clear());
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(clearButton);
+        buttonPanel.add(statusLabel);
+
+        panel.add(new JScrollPane(ticketList), BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private JPanel createDiagnosticsPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+
+        JTextArea diagnosticsArea = new JTextArea();
+        diagnosticsArea.setEditable(false);
+        diagnosticsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JButton refreshButton = new JButton("Refresh");
+        JButton clearSlowButton = new JButton("Clear Slow SQL");
+        refreshButton.addActionListener(e -> diagnosticsArea.setText(formatDiagnostics()));
+        clearSlowButton.addActionListener(e -> {
+            SlowSqlLog.getInstance().clear();
+            diagnosticsArea.setText(formatDiagnostics());
+        });
+
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(clearSlowButton);
+
+        diagnosticsArea.setText(formatDiagnostics());
+        panel.add(new JScrollPane(diagnosticsArea), BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    // Everything here is already in memory, so it is safe to build on the EDT
+    private String formatDiagnostics() {
+        StringBuilder text = new StringBuilder();
+        text.append("CONNECTION POOL\n").append(DatabaseManager.getPool()).append("\n\n");
+
+        text.append("SERVICE OPERATIONS\n");
+        for (OperationStats stats : ServiceMetrics.getOperations()) {
+            if (stats.getCount() > 0) {
+                text.append(stats).append("\n");
+            }
+        }
+
+        List<SlowSqlLog.Execution> slowest = SlowSqlLog.getInstance().getSlowest();
+        text.append("\nSLOWEST STATEMENTS (").append(slowest.size()).append(")\n");
+        for (SlowSqlLog.Execution execution : slowest) {
+            text.append(execution).append("\n");
+        }
+        return text.toString();
+    }
+
+    private JPanel createReportsPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+
+        JTextArea reportArea = new JTextArea();
+        reportArea.setEditable(false);
+        reportArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        String[] ranges = {"Today", "Last 7 Days", "Last 30 Days", "Last 365 Days"};
+        JComboBox<String> rangeCombo = new JComboBox<>(ranges);
+        JButton runButton = new JButton("Run Report");
+        JButton reloadButton = new JButton("Reload Data");
+        JButton rebuildButton = new JButton("Rebuild Daily Totals");
+        JButton exportButton = new JButton("Export...");
+        exportButton.addActionListener(e -> exportData());
+
+        // Today's totals come from the rollup, not from the history snapshot
+        JLabel todayLabel = new JLabel(" ");
+        DailySalesAggregator dailySales = DailySalesAggregator.getInstance();
+        Runnable refreshToday = () -> runAsync("today", ServiceExecutor.supply(dailySales::getToday),
+                today -> todayLabel.setText("Today " + today));
+
+        // The first query of a session loads the history; after that reports come from memory
+        SalesAnalytics analytics = SalesAnalytics.getInstance();
+        Runnable runReport = () -> {
+            refreshToday.run();
+            int days = new int[]{0, 7, 30, 365}[rangeCombo.getSelectedIndex()];
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime from = days == 0 ? now.toLocalDate().atStartOfDay() : now.minusDays(days);
+            reportArea.setText("Running report...");
+            runAsync("report", ServiceExecutor.supply(() -> analytics.report(from, now)), reportArea::setText);
+        };
+        runButton.addActionListener(e -> runReport.run());
+        reloadButton.addActionListener(e -> {
+            reportArea.setText("Reloading sales data...");
+            runAsync("report", ServiceExecutor.supply(analytics::refresh), loaded -> runReport.run());
+        });
+        rebuildButton.addActionListener(e -> {
+            int confirm = JOptionPane.showConfirmDialog(this,
+                    "Recompute the daily totals from every bill? Billing waits while this runs.",
+                    "Rebuild Daily Totals", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
+            }
+            rebuildButton.setEnabled(false);
+            runWrite(ServiceExecutor.supply(dailySales::rebuild), rows -> {
+                rebuildButton.setEnabled(true);
+                if (rows < 0) {
+                    JOptionPane.showMessageDialog(this, "Failed to rebuild daily totals!", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                JOptionPane.showMessageDialog(this, "Daily totals rebuilt: " + rows + " hourly rows.");
+                refreshToday.run();
+            });
+        });
+
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(rangeCombo);
+        buttonPanel.add(runButton);
+        buttonPanel.add(reloadButton);
+        buttonPanel.add(rebuildButton);
+        buttonPanel.add(exportButton);
+
+        panel.add(todayLabel, BorderLayout.NORTH);
+        panel.add(new JScrollPane(reportArea), BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        runReport.run();
+        return panel;
+    }
+
+    // Accounting extracts; defaults to last calendar month
+    private void exportData() {
+        String[] datasets = {"Orders", "Order Items", "Bills"};
+        JComboBox<String> datasetCombo = new JComboBox<>(datasets);
+        JComboBox<OrderExporter.Format> formatCombo = new JComboBox<>(OrderExporter.Format.values());
+        JCheckBox gzipBox = new JCheckBox("Compress (gzip)");
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+        JTextField fromField = new JTextField(firstOfMonth.minusMonths(1).toString());
+        JTextField toField = new JTextField(firstOfMonth.toString());
+        JComboBox<String> statusCombo = new JComboBox<>();
+        // Only the statuses the chosen data has: order status, or payment status for bills
+        Runnable fillStatuses = () -> {
+            statusCombo.removeAllItems();
+            statusCombo.addItem("Any");
+            for (String status : OrderExporter.Dataset.values()[datasetCombo.getSelectedIndex()].getStatuses()) {
+                statusCombo.addItem(status);
             }
+        };
+        datasetCombo.addActionListener(e -> fillStatuses.run());
+        fillStatuses.run();
+
+        JPanel panel = new JPanel(new GridLayout(0, 1));
+        panel.add(new JLabel("Data:"));
+        panel.add(datasetCombo);
+        panel.add(new JLabel("Format:"));
+        panel.add(formatCombo);
+        panel.add(gzipBox);
+        panel.add(new JLabel("From (yyyy-MM-dd):"));
+        panel.add(fromField);
+        panel.add(new JLabel("To, not included (yyyy-MM-dd):"));
+        panel.add(toField);
+        panel.add(new JLabel("Status (payment status for bills):"));
+        panel.add(statusCombo);
+
+        int result = JOptionPane.showConfirmDialog(this, panel, "Export Data", JOptionPane.OK_CANCEL_OPTION);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            from = LocalDate.parse(fromField.getText().trim()).atStartOfDay();
+            to = LocalDate.parse(toField.getText().trim()).atStartOfDay();
+        } catch (java.time.format.DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Dates must be yyyy-MM-dd!", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        OrderExporter.Dataset dataset = OrderExporter.Dataset.values()[datasetCombo.getSelectedIndex()];
+        OrderExporter.Format format = (OrderExporter.Format) formatCombo.getSelectedItem();
+        boolean gzip = gzipBox.isSelected();
+        String status = statusCombo.getSelectedIndex() == 0 ? null : (String) statusCombo.getSelectedItem();
+
+        String extension = (format == OrderExporter.Format.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File(dataset.name().toLowerCase() + "-" + fromField.getText().trim() + extension));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
+        java.nio.file.Path file = chooser.getSelectedFile().toPath();
+
+        OrderExporter exporter = new OrderExporter(format, gzip);
+        runWrite(ServiceExecutor.supply(() -> exporter.export(dataset, from, to, status, file)), rows -> {
+            if (rows < 0) {
+                JOptionPane.showMessageDialog(this, "Export failed!", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, "Exported " + rows + " rows to " + file);
+            }
+        });
     }
 
     private JPanel createBillingPanel() {
@@ -751,6 +1358,7 @@ public class RestaurantGUI extends JFrame {
         JButton viewBillButton = new JButton("View Bill");
         JButton markPaidButton = new JButton("Mark as Paid");
         JButton printBillButton = new JButton("Print Bill");
+        JButton closeDayButton = new JButton("Close Day");
 
         formPanel.add(orderIdLabel);
         formPanel.add(orderIdField);
@@ -758,6 +1366,7 @@ public class RestaurantGUI extends JFrame {
         formPanel.add(viewBillButton);
         formPanel.add(markPaidButton);
         formPanel.add(printBillButton);
+        formPanel.add(closeDayButton);
 
         // Text area for bill display
         JTextArea billArea = new JTextArea();
@@ -800,49 +1409,103 @@ public class RestaurantGUI extends JFrame {
             }
         });
 
+        closeDayButton.addActionListener(e -> closeDay());
+
         panel.add(formPanel, BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
 
         return panel;
     }
 
-    private void generateBill(int orderId, JTextArea billArea) {
-        Order order = orderService.getOrderById(orderId);
-        if (order == null) {
-            JOptionPane.showMessageDialog(this, "Order not found!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+    private void closeDay() {
+        JCheckBox settleBox = new JCheckBox("Mark today's bills as paid");
+        JPanel panel = new JPanel(new GridLayout(0, 1));
+        panel.add(new JLabel("Generate bills for every completed order and free all tables?"));
+        panel.add(settleBox);
 
-        if (!order.getStatus().equals("COMPLETED")) {
-            JOptionPane.showMessageDialog(this, "Cannot generate bill for incomplete order!", "Error", JOptionPane.ERROR_MESSAGE);
+        int result = JOptionPane.showConfirmDialog(this, panel, "Close Day",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
             return;
         }
 
-        // Check if bill already exists
-        Bill existingBill = billingService.getBillByOrderId(orderId);
-        if (existingBill != null) {
-            JOptionPane.showMessageDialog(this, "Bill already exists for this order!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        EndOfDayCloseJob job = new EndOfDayCloseJob(settleBox.isSelected());
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        JButton stopButton = new JButton("Stop");
+        stopButton.addActionListener(e -> job.cancel());
+
+        JDialog progressDialog = new JDialog(this, "Closing Day", false);
+        progressDialog.setLayout(new BorderLayout(5, 5));
+        progressDialog.add(progressBar, BorderLayout.CENTER);
+        progressDialog.add(stopButton, BorderLayout.SOUTH);
+        progressDialog.setSize(350, 100);
+        progressDialog.setLocationRelativeTo(this);
+        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        progressDialog.setVisible(true);
+
+        CompletableFuture<EndOfDayCloseJob.Summary> close = ServiceExecutor.supply(() ->
+                job.run((billed, total) -> SwingUtilities.invokeLater(() -> {
+                    progressBar.setMaximum(Math.max(1, total));
+                    progressBar.setValue(billed);
+                    progressBar.setString(billed + " / " + total + " orders");
+                })));
+        close.whenComplete((summary, error) -> SwingUtilities.invokeLater(progressDialog::dispose));
+        runWrite(close, summary -> {
+            if (summary != null) {
+                JOptionPane.showMessageDialog(this, summary.toString());
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to close day!", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+    }
 
-        Bill bill = billingService.generateBill(orderId);
-        if (bill != null) {
-            JOptionPane.showMessageDialog(this, "Bill generated successfully! Bill ID: " + bill.getId());
-            viewBill(orderId, billArea);
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to generate bill!", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    private void generateBill(int orderId, JTextArea billArea) {
+        runAsync("bill", orderService.getOrderByIdAsync(orderId), order -> {
+            if (order == null) {
+                JOptionPane.showMessageDialog(this, "Order not found!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            if (!order.getStatus().equals("COMPLETED")) {
+                JOptionPane.showMessageDialog(this, "Cannot generate bill for incomplete order!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            // Check if bill already exists
+            runAsync("bill", billingService.getBillByOrderIdAsync(orderId), existingBill -> {
+                if (existingBill != null) {
+                    JOptionPane.showMessageDialog(this, "Bill already exists for this order!", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                runWrite(billingService.generateBillAsync(orderId), bill -> {
+                    if (bill != null) {
+                        JOptionPane.showMessageDialog(this, "Bill generated successfully! Bill ID: " + bill.getId());
+                        viewBill(orderId, billArea);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to generate bill!", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            });
+        });
     }
 
     private void viewBill(int orderId, JTextArea billArea) {
-        Bill bill = billingService.getBillByOrderId(orderId);
-        Order order = orderService.getOrderById(orderId);
+        CompletableFuture<String> billText = billingService.getBillByOrderIdAsync(orderId)
+                .thenCombine(orderService.getOrderByIdAsync(orderId),
+                        (bill, order) -> bill == null || order == null ? null : formatBill(bill, order));
 
-        if (bill == null || order == null) {
-            JOptionPane.showMessageDialog(this, "Bill or order not found!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        runAsync("bill", billText, text -> {
+            if (text == null) {
+                JOptionPane.showMessageDialog(this, "Bill or order not found!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            billArea.setText(text);
+        });
+    }
 
+    private String formatBill(Bill bill, Order order) {
         StringBuilder billText = new StringBuilder();
         billText.append("Bill ID: ").append(bill.getId()).append("\n");
         billText.append("Order ID: ").append(order.getId()).append("\n");
@@ -852,49 +1515,55 @@ public class RestaurantGUI extends JFrame {
         billText.append("----------------------------------------\n");
 
         for (OrderItem item : order.getItems()) {
-            billText.append(String.format("%-25s %2dx$%6.2f = $%8.2f%n",
+            billText.append(String.format("%-25s %2dx$%6s = $%8s%n",
                     item.getItemName(), item.getQuantity(), item.getPrice(), item.getTotal()));
         }
 
         billText.append("----------------------------------------\n");
-        billText.append(String.format("%-35s $%8.2f%n", "Subtotal:", bill.getSubtotal()));
-        billText.append(String.format("%-35s $%8.2f%n", "Tax (8%):", bill.getTax()));
+        billText.append(String.format("%-35s $%8s%n", "Subtotal:", bill.getSubtotal()));
+        billText.append(String.format("%-35s $%8s%n", bill.getTaxLabel() + ":", bill.getTax()));
         billText.append("========================================\n");
-        billText.append(String.format("%-35s $%8.2f%n", "TOTAL:", bill.getTotal()));
+        billText.append(String.format("%-35s $%8s%n", "TOTAL:", bill.getTotal()));
         billText.append("========================================\n");
         billText.append("Payment Status: ").append(bill.getPaymentStatus()).append("\n");
 
-        billArea.setText(billText.toString());
+        return billText.toString();
     }
 
     private void markBillAsPaid(int orderId) {
-        Bill bill = billingService.getBillByOrderId(orderId);
-        if (bill == null) {
-            JOptionPane.showMessageDialog(this, "Bill not found for this order!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        if (billingService.markBillAsPaid(bill.getId())) {
-            JOptionPane.showMessageDialog(this, "Bill marked as paid successfully!");
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to update bill payment status!", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        // Null when the order has no bill
+        CompletableFuture<Boolean> paid = billingService.getBillByOrderIdAsync(orderId)
+                .thenCompose(bill -> bill == null ? CompletableFuture.completedFuture(null)
+                        : billingService.markBillAsPaidAsync(bill.getId()));
+        runWrite(paid, ok -> {
+            if (ok == null) {
+                JOptionPane.showMessageDialog(this, "Bill not found for this order!", "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (ok) {
+                JOptionPane.showMessageDialog(this, "Bill marked as paid successfully!");
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to update bill payment status!", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 
     private void printBill(int orderId, JTextArea billArea) {
-        Bill bill = billingService.getBillByOrderId(orderId);
-        Order order = orderService.getOrderById(orderId);
-
-        if (bill == null || order == null) {
-            JOptionPane.showMessageDialog(this, "Bill or order not found!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        viewBill(orderId, billArea);
-        JOptionPane.showMessageDialog(this, "Bill printed to console and displayed above.");
-
-        // Also print to console
-        billingService.printBill(bill, order);
+        // Printed to the console as soon as both are loaded, then shown here
+        CompletableFuture<String> billText = billingService.getBillByOrderIdAsync(orderId)
+                .thenCombine(orderService.getOrderByIdAsync(orderId), (bill, order) -> {
+                    if (bill == null || order == null) {
+                        return null;
+                    }
+                    billingService.printBill(bill, order);
+                    return formatBill(bill, order);
+                });
+        runWrite(billText, text -> {
+            if (text == null) {
+                JOptionPane.showMessageDialog(this, "Bill or order not found!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            billArea.setText(text);
+            JOptionPane.showMessageDialog(this, "Bill printed to console and displayed above.");
+        });
     }
 
     private JPanel createUserManagementPanel() {
@@ -929,13 +1598,15 @@ public class RestaurantGUI extends JFrame {
                 return;
             }
 
-            if (userService.registerUser(username, password, role)) {
-                JOptionPane.showMessageDialog(this, "User registered successfully!");
-                usernameField.setText("");
-                passwordField.setText("");
-            } else {
-                JOptionPane.showMessageDialog(this, "Registration failed! Username might already exist.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            runWrite(userService.registerUserAsync(username, password, role), registered -> {
+                if (registered) {
+                    JOptionPane.showMessageDialog(this, "User registered successfully!");
+                    usernameField.setText("");
+                    passwordField.setText("");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Registration failed! Username might already exist.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         });
 
         panel.add(formPanel, BorderLayout.NORTH);
@@ -953,9 +1624,8 @@ public class RestaurantGUI extends JFrame {
 
         // Refresh button
         JButton refreshButton = new JButton("Refresh Users");
-        refreshButton.addActionListener(e -> {
+        refreshButton.addActionListener(e -> runAsync("users", ServiceExecutor.supply(UserManagementService::getAllUsers), users -> {
             userTableModel.setRowCount(0);
-            List<User> users = UserManagementService.getAllUsers();
             for (User user : users) {
                 userTableModel.addRow(new Object[]{
                         user.getId(),
@@ -964,7 +1634,7 @@ public class RestaurantGUI extends JFrame {
                         user.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
                 });
             }
-        });
+        }));
 
         JPanel buttonPanel = new JPanel(new FlowLayout());
         buttonPanel.add(refreshButton);
@@ -990,3 +1660,449 @@ public class RestaurantGUI extends JFrame {
         });
     }
 }
+
+// Table models that keep one primitive array per column instead of a Vector of boxed rows.
+// Cells are boxed and formatted only when a row is painted; column 0 is always the record id.
+abstract class ColumnarTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] columns;
+    protected int[] ids = new int[64];
+    protected int size;
+    // Row of each id, stored as row + base: inserting or removing on top only moves base
+    private final IdIndex positions = new IdIndex();
+    private int base;
+
+    ColumnarTableModel(String... columns) {
+        this.columns = columns;
+    }
+
+    // Resize every column array to the new capacity
+    protected abstract void grow(int capacity);
+
+    // Move count rows starting at from to start at to, in every column array
+    protected abstract void move(int from, int to, int count);
+
+    // Drop object references held past size so cleared rows can be collected
+    protected abstract void clearFrom(int row);
+
+    @Override
+    public int getRowCount() { return size; }
+
+    @Override
+    public int getColumnCount() { return columns.length; }
+
+    @Override
+    public String getColumnName(int column) { return columns[column]; }
+
+    public int getId(int row) { return ids[row]; }
+
+    public int findRow(int id) {
+        int position = positions.get(id);
+        return position != IdIndex.MISSING ? position - base : -1;
+    }
+
+    public void clear() {
+        reset();
+        fireTableDataChanged();
+    }
+
+    // Empties the model without firing; the caller refills it and fires the event
+    protected void reset() {
+        clearFrom(0);
+        size = 0;
+        positions.clear();
+        base = 0;
+    }
+
+    protected void setId(int row, int id) {
+        ids[row] = id;
+        positions.put(id, row + base);
+    }
+
+    public void removeRow(int row) {
+        positions.remove(ids[row]);
+        move(row + 1, row, size - row - 1);
+        clearFrom(size - 1);
+        size--;
+        if (row == 0) {
+            base++;
+        } else {
+            reindex(row);
+        }
+        fireTableRowsDeleted(row, row);
+    }
+
+    // Opens a slot at row, shifting later rows down; the caller fills it and fires the event
+    protected int insertSlot(int row) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            grow(capacity);
+        }
+        if (row < size) {
+            move(row, row + 1, size - row);
+        }
+        size++;
+        if (row == 0) {
+            base--;
+        } else if (row < size - 1) {
+            reindex(row + 1);
+        }
+        return row;
+    }
+
+    private void reindex(int from) {
+        for (int row = from; row < size; row++) {
+            positions.put(ids[row], row + base);
+        }
+    }
+
+    // Int-to-int hash map over two arrays with linear probing, so indexing a row allocates nothing
+    static final class IdIndex implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+        static final int MISSING = Integer.MIN_VALUE;
+        // Row ids come from AUTO_INCREMENT columns and are never this
+        private static final int FREE = Integer.MIN_VALUE;
+
+        private int[] keys = newKeys(64);
+        private int[] values = new int[64];
+        private int count;
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+
+        private int slot(int key) {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & (keys.length - 1);
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key); keys[slot] != FREE; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return MISSING;
+        }
+
+        void put(int key, int value) {
+            if ((count + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key);
+            while (keys[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == FREE) {
+                keys[slot] = key;
+                count++;
+            }
+            values[slot] = value;
+        }
+
+        void remove(int key) {
+            int mask = keys.length - 1;
+            int gap = slot(key);
+            while (keys[gap] != key) {
+                if (keys[gap] == FREE) {
+                    return;
+                }
+                gap = (gap + 1) & mask;
+            }
+            // Shift later entries of the probe run back, so no lookup stops early at the hole
+            for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+                if (((next - slot(keys[next])) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = FREE;
+            count--;
+        }
+
+        void clear() {
+            Arrays.fill(keys, FREE);
+            count = 0;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(capacity);
+            values = new int[capacity];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+}
+
+class MenuTableModel extends ColumnarTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private final StringDictionary categoryCodes = new StringDictionary();
+    private String[] names = new String[64];
+    private int[] categories = new int[64];
+    private long[] priceCents = new long[64];
+    private boolean[] available = new boolean[64];
+    private String[] descriptions = new String[64];
+
+    MenuTableModel() {
+        super("ID", "Name", "Category", "Price", "Available", "Description");
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        names = Arrays.copyOf(names, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        available = Arrays.copyOf(available, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+
+    @Override
+    protected void move(int from, int to, int count) {
+        System.arraycopy(ids, from, ids, to, count);
+        System.arraycopy(names, from, names, to, count);
+        System.arraycopy(categories, from, categories, to, count);
+        System.arraycopy(priceCents, from, priceCents, to, count);
+        System.arraycopy(available, from, available, to, count);
+        System.arraycopy(descriptions, from, descriptions, to, count);
+    }
+
+    @Override
+    protected void clearFrom(int row) {
+        Arrays.fill(names, row, size, null);
+        Arrays.fill(descriptions, row, size, null);
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return ids[row];
+            case 1: return names[row];
+            case 2: return categoryCodes.valueOf(categories[row]);
+            case 3: return Money.ofCents(priceCents[row]);
+            case 4: return available[row] ? "Yes" : "No";
+            default: return descriptions[row];
+        }
+    }
+
+    public boolean isAvailable(int row) { return available[row]; }
+
+    public void setItems(List<MenuItem> items) {
+        reset();
+        for (MenuItem item : items) {
+            set(insertSlot(size), item);
+        }
+        fireTableDataChanged();
+    }
+
+    // Adds the item, or updates its row and repaints only when something changed
+    public void upsert(MenuItem item) {
+        int row = findRow(item.getId());
+        if (row == -1) {
+            row = set(insertSlot(size), item);
+            fireTableRowsInserted(row, row);
+            return;
+        }
+        long cents = Money.of(item.getPrice()).getCents();
+        int category = categoryCodes.codeOf(item.getCategory());
+        if (Objects.equals(names[row], item.getName()) && categories[row] == category && priceCents[row] == cents
+                && available[row] == item.isAvailable() && Objects.equals(descriptions[row], item.getDescription())) {
+            return;
+        }
+        set(row, item);
+        fireTableRowsUpdated(row, row);
+    }
+
+    private int set(int row, MenuItem item) {
+        setId(row, item.getId());
+        names[row] = item.getName();
+        categories[row] = categoryCodes.codeOf(item.getCategory());
+        priceCents[row] = Money.of(item.getPrice()).getCents();
+        available[row] = item.isAvailable();
+        descriptions[row] = item.getDescription();
+        return row;
+    }
+}
+
+class OrdersTableModel extends ColumnarTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final StringDictionary statusCodes = new StringDictionary();
+    private int[] tableIds = new int[64];
+    private String[] customers = new String[64];
+    private int[] statuses = new int[64];
+    private long[] totalCents = new long[64];
+    // Epoch seconds (UTC-based, zone-free) of order_time; formatted into formattedTimes on first paint
+    private long[] orderTimes = new long[64];
+    private String[] formattedTimes = new String[64];
+
+    OrdersTableModel() {
+        super("ID", "Table ID", "Customer", "Status", "Total", "Order Time");
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        tableIds = Arrays.copyOf(tableIds, capacity);
+        customers = Arrays.copyOf(customers, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        totalCents = Arrays.copyOf(totalCents, capacity);
+        orderTimes = Arrays.copyOf(orderTimes, capacity);
+        formattedTimes = Arrays.copyOf(formattedTimes, capacity);
+    }
+
+    @Override
+    protected void move(int from, int to, int count) {
+        System.arraycopy(ids, from, ids, to, count);
+        System.arraycopy(tableIds, from, tableIds, to, count);
+        System.arraycopy(customers, from, customers, to, count);
+        System.arraycopy(statuses, from, statuses, to, count);
+        System.arraycopy(totalCents, from, totalCents, to, count);
+        System.arraycopy(orderTimes, from, orderTimes, to, count);
+        System.arraycopy(formattedTimes, from, formattedTimes, to, count);
+    }
+
+    @Override
+    protected void clearFrom(int row) {
+        Arrays.fill(customers, row, size, null);
+        Arrays.fill(formattedTimes, row, size, null);
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return ids[row];
+            case 1: return tableIds[row];
+            case 2: return customers[row];
+            case 3: return statusCodes.valueOf(statuses[row]);
+            case 4: return Money.ofCents(totalCents[row]);
+            default:
+                if (formattedTimes[row] == null) {
+                    formattedTimes[row] = LocalDateTime.ofEpochSecond(orderTimes[row], 0, ZoneOffset.UTC).format(TIME_FORMAT);
+                }
+                return formattedTimes[row];
+        }
+    }
+
+    public String getStatus(int row) { return statusCodes.valueOf(statuses[row]); }
+
+    // Orders already on screen, e.g. put on top by an event before their page loaded, are skipped
+    public void append(List<Order> orders) {
+        int first = size;
+        for (Order order : orders) {
+            if (findRow(order.getId()) == -1) {
+                set(insertSlot(size), order);
+            }
+        }
+        if (size > first) {
+            fireTableRowsInserted(first, size - 1);
+        }
+    }
+
+    // New orders are the newest, so they go on top; known ones repaint only when something changed
+    public void upsert(Order order) {
+        int row = findRow(order.getId());
+        if (row == -1) {
+            set(insertSlot(0), order);
+            fireTableRowsInserted(0, 0);
+            return;
+        }
+        long time = order.getOrderTime().toEpochSecond(ZoneOffset.UTC);
+        if (tableIds[row] == order.getTableId() && Objects.equals(customers[row], order.getCustomerName())
+                && statuses[row] == statusCodes.codeOf(order.getStatus())
+                && totalCents[row] == order.getTotalAmount().getCents() && orderTimes[row] == time) {
+            return;
+        }
+        set(row, order);
+        fireTableRowsUpdated(row, row);
+    }
+
+    private void set(int row, Order order) {
+        setId(row, order.getId());
+        tableIds[row] = order.getTableId();
+        customers[row] = order.getCustomerName();
+        statuses[row] = statusCodes.codeOf(order.getStatus());
+        totalCents[row] = order.getTotalAmount().getCents();
+        orderTimes[row] = order.getOrderTime().toEpochSecond(ZoneOffset.UTC);
+        formattedTimes[row] = null;
+    }
+}
+
+class TablesTableModel extends ColumnarTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private final StringDictionary statusCodes = new StringDictionary();
+    private int[] tableNumbers = new int[64];
+    private int[] capacities = new int[64];
+    private int[] statuses = new int[64];
+
+    TablesTableModel() {
+        super("ID", "Table Number", "Capacity", "Status");
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        tableNumbers = Arrays.copyOf(tableNumbers, capacity);
+        capacities = Arrays.copyOf(capacities, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+
+    @Override
+    protected void move(int from, int to, int count) {
+        System.arraycopy(ids, from, ids, to, count);
+        System.arraycopy(tableNumbers, from, tableNumbers, to, count);
+        System.arraycopy(capacities, from, capacities, to, count);
+        System.arraycopy(statuses, from, statuses, to, count);
+    }
+
+    @Override
+    protected void clearFrom(int row) {
+        // Nothing but primitives
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return ids[row];
+            case 1: return tableNumbers[row];
+            case 2: return capacities[row];
+            default: return statusCodes.valueOf(statuses[row]);
+        }
+    }
+
+    public String getStatus(int row) { return statusCodes.valueOf(statuses[row]); }
+
+    public void setTables(List<RestaurantTable> tables) {
+        reset();
+        for (RestaurantTable table : tables) {
+            int row = insertSlot(size);
+            setId(row, table.getId());
+            tableNumbers[row] = table.getTableNumber();
+            capacities[row] = table.getCapacity();
+            statuses[row] = statusCodes.codeOf(table.getStatus());
+        }
+        fireTableDataChanged();
+    }
+
+    public void setStatus(int row, String status) {
+        int code = statusCodes.codeOf(status);
+        if (statuses[row] != code) {
+            statuses[row] = code;
+            fireTableRowsUpdated(row, row);
+        }
+    }
+}
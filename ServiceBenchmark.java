@@ -0,0 +1,219 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Service Benchmark: times the service layer against a seeded database.
+//   java -Drestaurant.db.url=... ServiceBenchmark [--orders=1000000] [--threads=4] [--warmup=10] [--measure=20]
+//        [--ops=menu.getMenuItemById,orders.getOrderById,...] [--billPool=200000] [--skipSeed]
+// Bills and order lines written during a run are removed again afterwards, so every run sees the seeded data.
+public class ServiceBenchmark {
+    private static final String[] DEFAULT_OPS = {
+            "menu.getAllMenuItems", "menu.getMenuItemById", "tables.getAllTables", "tables.getAvailableTables",
+            "orders.getOrderById", "orders.getOrdersPage", "orders.addItemToOrder", "billing.generateBill"
+    };
+
+    private final MenuManagementService menuService = new MenuManagementService();
+    private final TableManagementService tableService = new TableManagementService();
+    private final OrderManagementService orderService = new OrderManagementService();
+    private final BillingService billingService = new BillingService();
+    private final BenchmarkSeeder seeder = new BenchmarkSeeder();
+    private final int billPoolSize;
+    private int[] menuItemIds;
+    private int minOrderId;
+    private int maxOrderId;
+    // Unbilled COMPLETED orders, each handed out once per run, so generateBill is timed on real work
+    private int[] billPool = new int[0];
+    private final AtomicInteger billCursor = new AtomicInteger();
+
+    ServiceBenchmark(int billPoolSize) {
+        this.billPoolSize = billPoolSize;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int orders = Integer.parseInt(options.getOrDefault("orders", "1000000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "4"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long measureSeconds = Long.parseLong(options.getOrDefault("measure", "20"));
+        String[] ops = options.containsKey("ops") ? options.get("ops").split(",") : DEFAULT_OPS;
+        int billPool = Integer.parseInt(options.getOrDefault("billPool", "200000"));
+
+        DatabaseManager.initializeDatabase();
+        ServiceBenchmark benchmark = new ServiceBenchmark(billPool);
+        if (!options.containsKey("skipSeed")) {
+            new BenchmarkSeeder().seed(100, 200, orders);
+        }
+        benchmark.loadKeys();
+
+        System.out.printf("%-28s %12s %10s %10s %10s %10s %12s%n",
+                "operation", "ops/s", "p50 us", "p99 us", "p99.9 us", "max us", "alloc B/op");
+        for (String op : ops) {
+            Runnable task = benchmark.operation(op.trim());
+            benchmark.runReset(task, threads, warmupSeconds);
+            Measurement result = benchmark.runReset(task, threads, measureSeconds);
+            if (result.failure != null) {
+                System.out.printf("%-28s stopped early: %s%n", op.trim(), result.failure.getMessage());
+            }
+            LatencyHistogram histogram = result.histogram;
+            System.out.printf("%-28s %,12.0f %10.1f %10.1f %10.1f %10.1f %,12d%n",
+                    op.trim(), histogram.getCount() / result.seconds,
+                    histogram.getValueAtQuantile(0.50) / 1e3, histogram.getValueAtQuantile(0.99) / 1e3,
+                    histogram.getValueAtQuantile(0.999) / 1e3, histogram.getMax() / 1e3,
+                    histogram.getCount() == 0 ? 0 : result.allocatedBytes / histogram.getCount());
+        }
+        DatabaseManager.shutdown();
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = option.indexOf('=');
+            options.put(eq < 0 ? option : option.substring(0, eq), eq < 0 ? "" : option.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private void loadKeys() throws SQLException {
+        menuItemIds = menuService.getAllMenuItems().stream().mapToInt(MenuItem::getId).toArray();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            ResultSet rs = conn.prepareStatement("SELECT MIN(id), MAX(id) FROM orders").executeQuery();
+            if (rs.next()) {
+                minOrderId = rs.getInt(1);
+                maxOrderId = rs.getInt(2);
+            }
+        }
+        if (menuItemIds.length == 0 || maxOrderId == 0) {
+            throw new IllegalStateException("Benchmark database is empty; run without --skipSeed first");
+        }
+    }
+
+    // One timed run between a mark and a reset of the data it writes
+    private Measurement runReset(Runnable task, int threads, long seconds) throws Exception {
+        BenchmarkSeeder.Mark mark = seeder.mark();
+        loadBillPool();
+        try {
+            return run(task, threads, seconds);
+        } finally {
+            seeder.resetTo(mark);
+        }
+    }
+
+    private void loadBillPool() throws SQLException {
+        List<Integer> ids = new ArrayList<>(billPoolSize);
+        try (Connection conn = DatabaseManager.getConnection()) {
+            String sql = """
+                    SELECT o.id FROM orders o
+                    LEFT JOIN bills b ON b.order_id = o.id
+                    WHERE o.status = 'COMPLETED' AND b.id IS NULL
+                    ORDER BY o.id LIMIT ?""";
+            PreparedStatement pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, billPoolSize);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        billPool = ids.stream().mapToInt(Integer::intValue).toArray();
+        billCursor.set(0);
+    }
+
+    private int nextUnbilledOrder() {
+        int index = billCursor.getAndIncrement();
+        if (index >= billPool.length) {
+            throw new IllegalStateException("all " + billPool.length + " unbilled orders billed; raise --billPool");
+        }
+        return billPool[index];
+    }
+
+    private Runnable operation(String name) {
+        switch (name) {
+            case "menu.getAllMenuItems": return menuService::getAllMenuItems;
+            case "menu.getMenuItemById": return () -> menuService.getMenuItemById(randomMenuItem());
+            case "tables.getAllTables": return tableService::getAllTables;
+            case "tables.getAvailableTables": return tableService::getAvailableTables;
+            case "orders.getAllOrders": return orderService::getAllOrders;
+            case "orders.getOrderById": return () -> orderService.getOrderById(randomOrder());
+            case "orders.getOrdersPage": return () -> orderService.getOrdersPage(null, 50);
+            case "orders.addItemToOrder": return () -> orderService.addItemToOrder(randomOrder(), randomMenuItem(), 1);
+            case "billing.generateBill": return () -> billingService.generateBill(nextUnbilledOrder());
+            default: throw new IllegalArgumentException("Unknown operation: " + name);
+        }
+    }
+
+    private int randomMenuItem() {
+        return menuItemIds[ThreadLocalRandom.current().nextInt(menuItemIds.length)];
+    }
+
+    private int randomOrder() {
+        return ThreadLocalRandom.current().nextInt(minOrderId, maxOrderId + 1);
+    }
+
+    private static final class Measurement {
+        final LatencyHistogram histogram;
+        final long allocatedBytes;
+        final double seconds;
+        final RuntimeException failure;
+
+        Measurement(LatencyHistogram histogram, long allocatedBytes, double seconds, RuntimeException failure) {
+            this.histogram = histogram;
+            this.allocatedBytes = allocatedBytes;
+            this.seconds = seconds;
+            this.failure = failure;
+        }
+    }
+
+    // Runs the task on every thread for the given time, timing each call and summing bytes allocated.
+    // The first exception from any thread ends the run for all of them.
+    private static Measurement run(Runnable task, int threads, long seconds) throws InterruptedException {
+        java.lang.management.ThreadMXBean threadBean = java.lang.management.ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocationBean = threadBean instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threadBean : null;
+        LatencyHistogram histogram = new LatencyHistogram();
+        AtomicLong allocated = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                long threadId = Thread.currentThread().getId();
+                long before = allocationBean != null ? allocationBean.getThreadAllocatedBytes(threadId) : 0;
+                try {
+                    while (running.get()) {
+                        long begin = System.nanoTime();
+                        task.run();
+                        histogram.record(System.nanoTime() - begin);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    running.set(false);
+                } finally {
+                    if (allocationBean != null) {
+                        allocated.addAndGet(allocationBean.getThreadAllocatedBytes(threadId) - before);
+                    }
+                    done.countDown();
+                }
+            }, "benchmark-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await(seconds, TimeUnit.SECONDS);
+        running.set(false);
+        done.await();
+        return new Measurement(histogram, allocated.get(), (System.nanoTime() - start) / 1e9, failure.get());
+    }
+}
@@ -0,0 +1,83 @@
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Menu Search Index checks: java -cp <classes> MenuSearchIndexTest (exits non-zero on the first failure)
+public class MenuSearchIndexTest {
+    // Ties keep menu order, so the items a ranking rule should lift are listed after the ones it should beat
+    private static final MenuSearchIndex INDEX = new MenuSearchIndex(List.of(
+            item(4, "Chicken Soup", "Starters", false, "Slow cooked with garlic"),
+            item(6, "Teacake", "Desserts", true, "Spiced fruit bun"),
+            item(1, "Garlic Bread", "Starters", true, "Toasted with butter"),
+            item(2, "Teriyaki Chicken", "Mains", true, "Glazed thigh with rice"),
+            item(3, "Tea", "Drinks", true, null),
+            item(5, "Salsa", "Sides", true, "Tomato and lime")));
+
+    public static void main(String[] args) {
+        wholeWordBeatsPrefix();
+        nameBeatsDescription();
+        prefixesMatch();
+        typosMatchByTrigrams();
+        distantWordsDoNotMatch();
+        everyTermMustMatch();
+        blankQueryListsTheMenu();
+        System.out.println("MenuSearchIndexTest: all checks passed");
+    }
+
+    private static void wholeWordBeatsPrefix() {
+        checkIds(search("tea", 10), 3, 6);
+    }
+
+    private static void nameBeatsDescription() {
+        checkIds(search("garlic", 10), 1, 4);
+    }
+
+    private static void prefixesMatch() {
+        checkIds(search("teri", 10), 2);
+        checkIds(search("STARt", 10), 4, 1);
+    }
+
+    private static void typosMatchByTrigrams() {
+        checkIds(search("chiken", 10), 4, 2);
+    }
+
+    private static void distantWordsDoNotMatch() {
+        checkIds(search("salad", 10));
+    }
+
+    private static void everyTermMustMatch() {
+        checkIds(search("garlic chicken", 10), 4);
+        checkIds(INDEX.search("garlic chicken", 10, MenuItem::isAvailable));
+    }
+
+    private static void blankQueryListsTheMenu() {
+        checkIds(search("  ", 3), 4, 6, 1);
+        checkIds(INDEX.search("", 4, MenuItem::isAvailable), 6, 1, 2, 3);
+    }
+
+    private static List<MenuItem> search(String query, int limit) {
+        return INDEX.search(query, limit, item -> true);
+    }
+
+    private static MenuItem item(int id, String name, String category, boolean available, String description) {
+        return new MenuItem(id, name, category, new BigDecimal("5.00"), available, description);
+    }
+
+    private static void checkIds(List<MenuItem> results, int... expected) {
+        List<Integer> ids = new ArrayList<>();
+        for (MenuItem item : results) {
+            ids.add(item.getId());
+        }
+        List<Integer> wanted = new ArrayList<>();
+        for (int id : expected) {
+            wanted.add(id);
+        }
+        check(ids.equals(wanted), "results " + ids + " != " + wanted);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
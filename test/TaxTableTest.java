@@ -0,0 +1,99 @@
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+// Tax Table checks: java -cp <classes> TaxTableTest (exits non-zero on the first failure)
+public class TaxTableTest {
+    public static void main(String[] args) {
+        singleRateIsAddedOnTop();
+        categoryRatesOverrideTheDefault();
+        taxIsRoundedOncePerRate();
+        inclusivePricesHaveTaxBackedOut();
+        categoryLookupIgnoresDefaultLocale();
+        compiledRulesPreferTheJurisdiction();
+        System.out.println("TaxTableTest: all checks passed");
+    }
+
+    private static void singleRateIsAddedOnTop() {
+        TaxTable table = new TaxTable("default", null, false, 800, Map.of());
+        TaxTable.Tally tally = table.newTally();
+        tally.add("Mains", 1000);
+        tally.add("Drinks", 250);
+        checkAmounts(tally.result(), 1250, 100, 1350);
+        check("Tax (8%)".equals(table.getLabel()), "label: " + table.getLabel());
+    }
+
+    private static void categoryRatesOverrideTheDefault() {
+        TaxTable table = new TaxTable("default", null, false, 825, Map.of("Beverages", 1000L));
+        check(table.getBasisPoints("beverages") == 1000, "category rate");
+        check(table.getBasisPoints("Food") == 825, "default rate");
+        check(table.getBasisPoints(null) == 825, "null category");
+
+        TaxTable.Tally tally = table.newTally();
+        tally.add("Beverages", 1000);
+        tally.add("Food", 1000);
+        // 100 + 82.5 rounded half up
+        checkAmounts(tally.result(), 2000, 183, 2183);
+        check("Tax".equals(table.getLabel()), "mixed-rate label: " + table.getLabel());
+    }
+
+    private static void taxIsRoundedOncePerRate() {
+        TaxTable table = new TaxTable("default", null, false, 1000, Map.of());
+        TaxTable.Tally tally = table.newTally();
+        tally.add("Sides", 5);
+        tally.add("Sides", 5);
+        // Per line this would be 1 + 1
+        checkAmounts(tally.result(), 10, 1, 11);
+    }
+
+    private static void inclusivePricesHaveTaxBackedOut() {
+        TaxTable table = new TaxTable("default", null, true, 2000, Map.of());
+        TaxTable.Tally tally = table.newTally();
+        tally.add("Mains", 1200);
+        checkAmounts(tally.result(), 1000, 200, 1200);
+        check("Tax (20% included)".equals(table.getLabel()), "inclusive label: " + table.getLabel());
+    }
+
+    private static void categoryLookupIgnoresDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        // Turkish lower-cases I to a dotless i, so "DRINKS" would not match "Drinks"
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            Map<String, Long> rates = new LinkedHashMap<>();
+            rates.put("Drinks", 1000L);
+            TaxTable table = new TaxTable("default", null, false, 500, rates);
+            check(table.getBasisPoints("DRINKS") == 1000, "upper-case lookup under tr-TR");
+            check(table.getBasisPoints("drinks") == 1000, "lower-case lookup under tr-TR");
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    private static void compiledRulesPreferTheJurisdiction() {
+        Properties rules = new Properties();
+        rules.setProperty("default.rate", "8");
+        rules.setProperty("default.category.Beverages", "10");
+        rules.setProperty("paris.rate", "20");
+        rules.setProperty("paris.mode", "inclusive");
+        rules.setProperty("paris.label", "TVA");
+
+        TaxTable table = TaxEngine.compile(rules, "paris");
+        check("TVA".equals(table.getLabel()), "label: " + table.getLabel());
+        check(table.isInclusive(), "mode");
+        check(table.getBasisPoints("Beverages") == 1000, "inherited category rate");
+        check(table.getBasisPoints("Mains") == 2000, "jurisdiction default rate");
+    }
+
+    private static void checkAmounts(Money[] amounts, long subtotal, long tax, long total) {
+        check(amounts[0].getCents() == subtotal, "subtotal " + amounts[0].getCents() + " != " + subtotal);
+        check(amounts[1].getCents() == tax, "tax " + amounts[1].getCents() + " != " + tax);
+        check(amounts[2].getCents() == total, "total " + amounts[2].getCents() + " != " + total);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}